@@ -1,20 +1,30 @@
 package com.plantsocial.backend.block;
 
 import com.plantsocial.backend.user.User;
-import lombok.RequiredArgsConstructor;
+import com.plantsocial.backend.util.AfterCommit;
+import com.plantsocial.backend.util.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class BlockService {
 
     private final UserBlockRepository userBlockRepository;
 
+    // Mutual block set per user, read on every feed/search request
+    private final LocalCache<UUID, BlockSet> blockSets;
+
+    public BlockService(UserBlockRepository userBlockRepository,
+            @Value("${block.cache.max-users:50000}") int maxUsers,
+            @Value("${block.cache.ttl:PT10M}") Duration ttl) {
+        this.userBlockRepository = userBlockRepository;
+        this.blockSets = new LocalCache<>(maxUsers, ttl);
+    }
+
     @Transactional
     public void blockUser(User blocker, User blocked) {
         if (blocker.getId().equals(blocked.getId())) {
@@ -25,26 +35,37 @@ public class BlockService {
         }
         UserBlock block = new UserBlock(blocker, blocked);
         userBlockRepository.save(block);
+        invalidate(blocker.getId(), blocked.getId());
     }
 
     @Transactional
     public void unblockUser(User blocker, User blocked) {
         userBlockRepository.deleteByBlockerAndBlocked(blocker, blocked);
+        invalidate(blocker.getId(), blocked.getId());
     }
 
-    @Transactional(readOnly = true)
-    public Set<UUID> getMutualBlockedUserIds(UUID userId) {
-        Set<UUID> blockedIds = userBlockRepository.findBlockedUserIdsByBlockerId(userId);
-        Set<UUID> blockerIds = userBlockRepository.findBlockerUserIdsByBlockedId(userId);
-
-        Set<UUID> allBlocked = new HashSet<>();
-        allBlocked.addAll(blockedIds);
-        allBlocked.addAll(blockerIds);
-        return allBlocked;
+    /**
+     * Users that {@code userId} blocked or was blocked by, as a compact set for
+     * in-memory filtering. Cached per user until either side blocks/unblocks.
+     */
+    public BlockSet getBlockSet(UUID userId) {
+        return blockSets.get(userId, id -> BlockSet.of(userBlockRepository.findMutualBlockedUserIds(id)));
     }
 
     @Transactional(readOnly = true)
     public boolean isBlocked(User blocker, User blocked) {
         return userBlockRepository.existsByBlockerAndBlocked(blocker, blocked);
     }
+
+    // Both users' sets change. Evict now and again after commit; LocalCache drops a set
+    // whose load overlapped either eviction, so a read that queried before the commit
+    // cannot put the pre-block set back for the rest of the TTL.
+    private void invalidate(UUID a, UUID b) {
+        blockSets.invalidate(a);
+        blockSets.invalidate(b);
+        AfterCommit.run(() -> {
+            blockSets.invalidate(a);
+            blockSets.invalidate(b);
+        });
+    }
 }
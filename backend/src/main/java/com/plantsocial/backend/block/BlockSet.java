@@ -0,0 +1,75 @@
+package com.plantsocial.backend.block;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable set of user ids a viewer must not see (blocked either way).
+ *
+ * Stored as two sorted parallel long arrays (UUID high/low bits) and probed with a
+ * binary search: 16 bytes per id, no boxing, and cheap enough to test every post
+ * of a fetched page in memory.
+ */
+public final class BlockSet {
+
+    public static final BlockSet EMPTY = new BlockSet(new long[0], new long[0]);
+
+    private final long[] msb;
+    private final long[] lsb;
+
+    private BlockSet(long[] msb, long[] lsb) {
+        this.msb = msb;
+        this.lsb = lsb;
+    }
+
+    public static BlockSet of(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return EMPTY;
+        }
+        UUID[] sorted = ids.stream().distinct().sorted().toArray(UUID[]::new);
+        long[] msb = new long[sorted.length];
+        long[] lsb = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            msb[i] = sorted[i].getMostSignificantBits();
+            lsb[i] = sorted[i].getLeastSignificantBits();
+        }
+        return new BlockSet(msb, lsb);
+    }
+
+    public boolean contains(UUID id) {
+        if (id == null || msb.length == 0) {
+            return false;
+        }
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        int low = 0;
+        int high = msb.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            // Same ordering as UUID.compareTo, which the arrays were sorted by
+            int cmp = msb[mid] != hi ? Long.compare(msb[mid], hi) : Long.compare(lsb[mid], lo);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return msb.length == 0;
+    }
+
+    public int size() {
+        return msb.length;
+    }
+
+    public Stream<UUID> stream() {
+        return IntStream.range(0, msb.length).mapToObj(i -> new UUID(msb[i], lsb[i]));
+    }
+}
@@ -12,11 +12,10 @@ import java.util.UUID;
 public interface UserBlockRepository extends JpaRepository<UserBlock, UUID> {
     boolean existsByBlockerAndBlocked(User blocker, User blocked);
 
-    @Query("SELECT b.blocked.id FROM UserBlock b WHERE b.blocker.id = :blockerId")
-    Set<UUID> findBlockedUserIdsByBlockerId(@Param("blockerId") UUID blockerId);
-
-    @Query("SELECT b.blocker.id FROM UserBlock b WHERE b.blocked.id = :blockedId")
-    Set<UUID> findBlockerUserIdsByBlockedId(@Param("blockedId") UUID blockedId);
+    /** Both directions in one query: users this user blocked plus users who blocked them. */
+    @Query("SELECT CASE WHEN b.blocker.id = :userId THEN b.blocked.id ELSE b.blocker.id END " +
+           "FROM UserBlock b WHERE b.blocker.id = :userId OR b.blocked.id = :userId")
+    Set<UUID> findMutualBlockedUserIds(@Param("userId") UUID userId);
 
     @Modifying
     void deleteByBlockerAndBlocked(User blocker, User blocked);
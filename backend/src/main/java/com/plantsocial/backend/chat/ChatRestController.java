@@ -3,6 +3,7 @@ package com.plantsocial.backend.chat;
 import com.plantsocial.backend.chat.dto.ChatMessageDTO;
 import com.plantsocial.backend.chat.dto.ChatRoomDTO;
 import com.plantsocial.backend.chat.dto.CreateRoomRequest;
+import com.plantsocial.backend.dto.CursorPage;
 import com.plantsocial.backend.service.FileStorageService;
 import com.plantsocial.backend.user.User;
 import jakarta.validation.Valid;
@@ -76,11 +77,28 @@ public class ChatRestController {
             @PathVariable UUID roomId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
-        return ResponseEntity.ok(chatService.getMessages(roomId, page, size));
+        User currentUser = chatService.getCurrentUser();
+        return ResponseEntity.ok(chatService.getMessages(roomId, currentUser, page, size));
+    }
+
+    /** Keyset history: pass the previous page's nextCursor (a message id) as {@code before}. */
+    @GetMapping("/rooms/{roomId}/history")
+    public ResponseEntity<CursorPage<ChatMessageDTO>> getHistory(
+            @PathVariable UUID roomId,
+            @RequestParam(required = false) UUID before,
+            @RequestParam(defaultValue = "50") int size) {
+        User currentUser = chatService.getCurrentUser();
+        return ResponseEntity.ok(chatService.getHistory(roomId, currentUser, before, size));
     }
 
     // ─── Members ───────────────────────────────────────────────────
 
+    @GetMapping("/rooms/{roomId}/member-ids")
+    public ResponseEntity<List<UUID>> getMemberIds(@PathVariable UUID roomId) {
+        User currentUser = chatService.getCurrentUser();
+        return ResponseEntity.ok(chatService.getMemberIds(roomId, currentUser));
+    }
+
     @PostMapping("/rooms/{roomId}/members")
     public ResponseEntity<Void> addMember(
             @PathVariable UUID roomId,
@@ -131,6 +149,12 @@ public class ChatRestController {
         return ResponseEntity.ok(presenceService.getOnlineUsers());
     }
 
+    /** Presence snapshot for just these users; live changes arrive on their presence shards. */
+    @GetMapping(value = "/online", params = "userIds")
+    public ResponseEntity<List<PresenceService.OnlineUser>> getOnlineUsers(@RequestParam List<UUID> userIds) {
+        return ResponseEntity.ok(presenceService.getOnlineUsers(userIds));
+    }
+
     // ─── User Search (for creating private chats) ───────────────────
 
     @GetMapping("/users/search")
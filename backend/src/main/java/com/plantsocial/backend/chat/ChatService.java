@@ -9,6 +9,8 @@ import com.plantsocial.backend.chat.model.ChatRoomMember;
 import com.plantsocial.backend.chat.repository.ChatMessageRepository;
 import com.plantsocial.backend.chat.repository.ChatRoomMemberRepository;
 import com.plantsocial.backend.chat.repository.ChatRoomRepository;
+import com.plantsocial.backend.dto.CursorPage;
+import com.plantsocial.backend.dto.PageCursor;
 import com.plantsocial.backend.exception.BusinessException;
 import com.plantsocial.backend.notification.NotificationService;
 import com.plantsocial.backend.notification.model.NotificationType;
@@ -16,6 +18,8 @@ import com.plantsocial.backend.realtime.CentrifugoPublisherService;
 import com.plantsocial.backend.security.SecurityUtils;
 import com.plantsocial.backend.user.User;
 import com.plantsocial.backend.user.UserRepository;
+import com.plantsocial.backend.util.AfterCommit;
+import com.plantsocial.backend.util.LocalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -23,8 +27,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,6 +44,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChatService {
 
+    private static final int MESSAGE_PREVIEW_LENGTH = 200;
+
+    // Pair key -> private room id; the mapping never changes once created
+    private final LocalCache<String, UUID> privateRoomIds = new LocalCache<>(20_000, Duration.ofHours(6));
+
     private final ChatRoomRepository chatRoomRepository;
     private final ChatRoomMemberRepository chatRoomMemberRepository;
     private final ChatMessageRepository chatMessageRepository;
@@ -40,6 +56,7 @@ public class ChatService {
     private final NotificationService notificationService;
     private final SecurityUtils securityUtils;
     private final CentrifugoPublisherService centrifugoPublisher;
+    private final RecentMessageBuffer recentMessages;
 
     // ─── Room Management ───────────────────────────────────────────
 
@@ -62,40 +79,89 @@ public class ChatService {
                         .ifPresent(user -> addMember(room, user, ChatRoomMember.MemberRole.MEMBER));
             }
         }
+        refreshMemberSummary(room.getId());
 
         log.info("Group room '{}' created by user '{}'", room.getName(), creator.getUsername());
         return mapToRoomDTO(room);
     }
 
+    /**
+     * Insert-or-get on the canonical pair key: a cached pair resolves with one primary-key
+     * lookup, and concurrent first opens converge on one room through the unique index.
+     */
     @Transactional
     public ChatRoomDTO getOrCreatePrivateRoom(User currentUser, UUID otherUserId) {
+        if (currentUser.getId().equals(otherUserId)) {
+            throw new BusinessException("INVALID_OPERATION", "Cannot start a private chat with yourself");
+        }
+        String key = privateKey(currentUser.getId(), otherUserId);
+        UUID cachedId = privateRoomIds.getIfPresent(key);
+        if (cachedId != null) {
+            Optional<ChatRoom> cached = chatRoomRepository.findById(cachedId);
+            if (cached.isPresent()) {
+                return mapToRoomDTO(cached.get());
+            }
+            privateRoomIds.invalidate(key);
+        }
+
         User otherUser = userRepository.findById(otherUserId)
                 .orElseThrow(() -> new BusinessException(BusinessException.USER_NOT_FOUND, "User not found"));
 
-        // Check if private room already exists
-        return chatRoomRepository.findPrivateRoom(currentUser.getId(), otherUserId)
-                .map(this::mapToRoomDTO)
-                .orElseGet(() -> {
-                    ChatRoom room = ChatRoom.builder()
-                            .type(ChatRoom.ChatRoomType.PRIVATE)
-                            .createdBy(currentUser)
-                            .build();
-                    chatRoomRepository.save(room);
-                    addMember(room, currentUser, ChatRoomMember.MemberRole.MEMBER);
-                    addMember(room, otherUser, ChatRoomMember.MemberRole.MEMBER);
-                    log.info("Private room created between '{}' and '{}'",
-                            currentUser.getUsername(), otherUser.getUsername());
-                    return mapToRoomDTO(room);
-                });
+        ChatRoom room;
+        UUID newId = UUID.randomUUID();
+        if (chatRoomRepository.insertPrivateIfAbsent(newId, key, currentUser.getId()) == 1) {
+            room = chatRoomRepository.findById(newId).orElseThrow();
+            addMember(room, currentUser, ChatRoomMember.MemberRole.MEMBER);
+            addMember(room, otherUser, ChatRoomMember.MemberRole.MEMBER);
+            refreshMemberSummary(room.getId());
+            log.info("Private room created between '{}' and '{}'",
+                    currentUser.getUsername(), otherUser.getUsername());
+        } else {
+            room = chatRoomRepository.findByPrivateKey(key).orElseThrow();
+        }
+
+        UUID roomId = room.getId();
+        AfterCommit.run(() -> privateRoomIds.put(key, roomId));
+        return mapToRoomDTO(room);
+    }
+
+    /** Order-independent key for a member pair; string order so SQL backfills can match it. */
+    static String privateKey(UUID a, UUID b) {
+        String x = a.toString();
+        String y = b.toString();
+        return x.compareTo(y) <= 0 ? x + ":" + y : y + ":" + x;
     }
 
+    /**
+     * The inbox, built from the denormalized summaries: one query for the user's member rows
+     * (with their rooms, ordered by last activity) and one batched lookup of the users shown
+     * in member previews and last-message senders, however many rooms there are.
+     */
     public List<ChatRoomDTO> getUserRooms(User user) {
-        return chatRoomRepository.findRoomsByUserId(user.getId())
-                .stream()
-                .map(this::mapToRoomDTO)
+        List<ChatRoomMember> inbox = chatRoomMemberRepository.findInboxByUserId(user.getId());
+
+        Set<UUID> userIds = new HashSet<>();
+        for (ChatRoomMember row : inbox) {
+            ChatRoom room = row.getChatRoom();
+            parseMemberPreview(room.getMemberPreview()).forEach((id, role) -> userIds.add(id));
+            if (room.getLastMessageSenderId() != null) {
+                userIds.add(room.getLastMessageSenderId());
+            }
+        }
+        Map<UUID, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+
+        return inbox.stream()
+                .map(row -> toInboxDTO(row, users))
                 .collect(Collectors.toList());
     }
 
+    /** Every member's id; the inbox only carries a preview of the first few members. */
+    public List<UUID> getMemberIds(UUID roomId, User user) {
+        requireMember(roomId, user);
+        return chatRoomMemberRepository.findUserIdsByChatRoomId(roomId);
+    }
+
     @Transactional
     public void addMemberToRoom(UUID roomId, UUID userId, User requester) {
         ChatRoom room = chatRoomRepository.findById(roomId)
@@ -118,6 +184,7 @@ public class ChatService {
         }
 
         addMember(room, newMember, ChatRoomMember.MemberRole.MEMBER);
+        refreshMemberSummary(roomId);
     }
 
     @Transactional
@@ -130,6 +197,7 @@ public class ChatService {
         }
 
         chatRoomMemberRepository.deleteByChatRoomIdAndUserId(roomId, userId);
+        refreshMemberSummary(roomId);
     }
 
     // ─── Messages ──────────────────────────────────────────────────
@@ -161,44 +229,169 @@ public class ChatService {
                 .mediaUrl(mediaUrl)
                 .build();
         chatMessageRepository.save(message);
+        // Inbox summaries: last message on the room, unread/activity on every member row,
+        // and the sender has read everything up to their own message
+        chatRoomRepository.recordLastMessage(roomId, message.getId(), sender.getId(),
+                preview(content), type, message.getCreatedAt());
+        chatRoomMemberRepository.recordMessage(roomId, sender.getId(), message.getCreatedAt());
+        chatRoomMemberRepository.advanceReadCursor(roomId, sender.getId(), message.getId(), message.getCreatedAt());
 
-        ChatMessageDTO dto = mapToMessageDTO(message);
+        ChatMessageDTO dto = mapToMessageDTO(message, false);
+        AfterCommit.run(() -> recentMessages.append(roomId, dto));
 
         centrifugoPublisher.publish("/topic/room/" + roomId, dto);
 
-        // Send notifications to other members
-        List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoomId(roomId);
-        members.stream()
-                .filter(m -> !m.getUser().getId().equals(sender.getId()))
-                .forEach(m -> {
-                    notificationService.createNotification(
-                            m.getUser(),
-                            sender,
-                            NotificationType.MESSAGE,
-                            "New message from " + sender.getFullName(),
-                            roomId);
-                });
+        // Notify the other members: one batched insert and one batched push for the whole room
+        List<User> recipients = chatRoomMemberRepository.findWithUserByChatRoomId(roomId).stream()
+                .map(ChatRoomMember::getUser)
+                .toList();
+        notificationService.createGroupNotifications(
+                recipients,
+                sender,
+                NotificationType.MESSAGE,
+                "New message from " + sender.getFullName(),
+                roomId);
 
         return dto;
     }
 
-    public Page<ChatMessageDTO> getMessages(UUID roomId, int page, int size) {
+    public Page<ChatMessageDTO> getMessages(UUID roomId, User user, int page, int size) {
+        requireMember(roomId, user);
+        List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoomId(roomId);
         return chatMessageRepository
                 .findByChatRoomIdOrderByCreatedAtDesc(roomId, PageRequest.of(page, size))
-                .map(this::mapToMessageDTO);
+                .map(m -> mapToMessageDTO(m, isReadByOthers(m.getSender().getId(), m.getCreatedAt(), members)));
+    }
+
+    /**
+     * Keyset history, newest first: the {@code size} messages older than message {@code before}
+     * (the newest when null). Recent history is served from {@link RecentMessageBuffer};
+     * anything older is an index seek on (chat_room_id, created_at). nextCursor is the id of
+     * the oldest message returned.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ChatMessageDTO> getHistory(UUID roomId, User user, UUID before, int size) {
+        requireMember(roomId, user);
+        int limit = CursorPage.clampSize(size);
+        List<ChatMessageDTO> rows = recentMessages.before(roomId, before, limit + 1,
+                id -> loadPage(id, PageCursor.START, recentMessages.capacity()));
+        if (rows == null) {
+            rows = loadPage(roomId, positionOf(roomId, before), limit + 1);
+        }
+
+        List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoomId(roomId);
+        boolean hasMore = rows.size() > limit;
+        List<ChatMessageDTO> page = (hasMore ? rows.subList(0, limit) : rows).stream()
+                .map(m -> m.withRead(isReadByOthers(m.senderId(), m.createdAt(), members)))
+                .toList();
+        String next = hasMore ? page.get(page.size() - 1).id().toString() : null;
+        return new CursorPage<>(page, next, hasMore);
+    }
+
+    private List<ChatMessageDTO> loadPage(UUID roomId, PageCursor after, int limit) {
+        return chatMessageRepository
+                .findPageBefore(roomId, after.createdAt(), after.id(), PageRequest.of(0, limit))
+                .stream()
+                .map(m -> mapToMessageDTO(m, false))
+                .toList();
+    }
+
+    private PageCursor positionOf(UUID roomId, UUID messageId) {
+        if (messageId == null) {
+            return PageCursor.START;
+        }
+        return chatMessageRepository.findById(messageId)
+                .filter(m -> m.getChatRoom().getId().equals(roomId))
+                .map(m -> new PageCursor(m.getCreatedAt(), m.getId()))
+                .orElseThrow(() -> new BusinessException(PageCursor.INVALID_CURSOR, "Unknown message cursor"));
     }
 
     // ─── Helpers ───────────────────────────────────────────────────
 
+    private void requireMember(UUID roomId, User user) {
+        if (!chatRoomMemberRepository.existsByChatRoomIdAndUserId(roomId, user.getId())) {
+            throw new BusinessException("NOT_A_MEMBER", "You are not a member of this room");
+        }
+    }
+
     private void addMember(ChatRoom room, User user, ChatRoomMember.MemberRole role) {
+        // History from before joining does not count as unread; the room shows up on top
+        LocalDateTime now = LocalDateTime.now();
         ChatRoomMember member = ChatRoomMember.builder()
                 .chatRoom(room)
                 .user(user)
                 .role(role)
+                .lastReadAt(now)
+                .roomActivityAt(room.getLastMessageAt() != null ? room.getLastMessageAt() : now)
                 .build();
         chatRoomMemberRepository.save(member);
     }
 
+    // Native update reads chat_room_members, so pending member inserts/deletes go out first
+    private void refreshMemberSummary(UUID roomId) {
+        chatRoomMemberRepository.flush();
+        chatRoomRepository.refreshMemberSummary(roomId);
+    }
+
+    private static String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() > MESSAGE_PREVIEW_LENGTH ? content.substring(0, MESSAGE_PREVIEW_LENGTH) : content;
+    }
+
+    private static Map<UUID, String> parseMemberPreview(String preview) {
+        Map<UUID, String> members = new LinkedHashMap<>();
+        if (preview == null || preview.isBlank()) {
+            return members;
+        }
+        for (String entry : preview.split(",")) {
+            int sep = entry.indexOf(':');
+            members.put(UUID.fromString(entry.substring(0, sep)), entry.substring(sep + 1));
+        }
+        return members;
+    }
+
+    private ChatRoomDTO toInboxDTO(ChatRoomMember row, Map<UUID, User> users) {
+        ChatRoom room = row.getChatRoom();
+        List<ChatRoomDTO.MemberInfo> memberInfos = new ArrayList<>();
+        parseMemberPreview(room.getMemberPreview()).forEach((id, role) -> {
+            User u = users.get(id);
+            if (u != null) {
+                memberInfos.add(new ChatRoomDTO.MemberInfo(
+                        u.getId(), u.getHandle(), u.getFullName(), u.getProfilePictureUrl(), role));
+            }
+        });
+
+        ChatMessageDTO lastMessage = null;
+        if (room.getLastMessageId() != null) {
+            User lastSender = users.get(room.getLastMessageSenderId());
+            // Read receipts are not part of the summary; the room view loads them
+            lastMessage = new ChatMessageDTO(
+                    room.getLastMessageId(),
+                    room.getId(),
+                    room.getLastMessageSenderId(),
+                    lastSender != null ? lastSender.getHandle() : null,
+                    lastSender != null ? lastSender.getFullName() : null,
+                    lastSender != null ? lastSender.getProfilePictureUrl() : null,
+                    room.getLastMessagePreview(),
+                    room.getLastMessageType().name(),
+                    null,
+                    room.getLastMessageAt(),
+                    false);
+        }
+
+        return new ChatRoomDTO(
+                room.getId(),
+                room.getName(),
+                room.getType().name(),
+                memberInfos,
+                lastMessage,
+                room.getCreatedAt(),
+                row.getUnreadCount(),
+                room.getMemberCount());
+    }
+
     public ChatRoomDTO mapToRoomDTO(ChatRoom room) {
         List<ChatRoomMember> members = chatRoomMemberRepository.findByChatRoomId(room.getId());
         List<ChatRoomDTO.MemberInfo> memberInfos = members.stream()
@@ -212,7 +405,7 @@ public class ChatService {
 
         ChatMessageDTO lastMessage = chatMessageRepository
                 .findTopByChatRoomIdOrderByCreatedAtDesc(room.getId())
-                .map(this::mapToMessageDTO)
+                .map(m -> mapToMessageDTO(m, isReadByOthers(m.getSender().getId(), m.getCreatedAt(), members)))
                 .orElse(null);
 
         User currentUser = securityUtils.getCurrentUserOrNull();
@@ -227,10 +420,26 @@ public class ChatService {
                 memberInfos,
                 lastMessage,
                 room.getCreatedAt(),
-                unreadCount);
+                unreadCount,
+                members.size());
+    }
+
+    /** A message counts as read once every other member's read cursor has passed it. */
+    private static boolean isReadByOthers(UUID senderId, LocalDateTime sentAt, List<ChatRoomMember> members) {
+        boolean anyOther = false;
+        for (ChatRoomMember m : members) {
+            if (m.getUser().getId().equals(senderId)) {
+                continue;
+            }
+            anyOther = true;
+            if (m.getLastReadAt() == null || m.getLastReadAt().isBefore(sentAt)) {
+                return false;
+            }
+        }
+        return anyOther;
     }
 
-    private ChatMessageDTO mapToMessageDTO(ChatMessage msg) {
+    private ChatMessageDTO mapToMessageDTO(ChatMessage msg, boolean read) {
         return new ChatMessageDTO(
                 msg.getId(),
                 msg.getChatRoom().getId(),
@@ -242,14 +451,14 @@ public class ChatService {
                 msg.getMessageType().name(),
                 msg.getMediaUrl(),
                 msg.getCreatedAt(),
-                Boolean.TRUE.equals(msg.getIsRead()));
+                read);
     }
 
     public void publishTyping(UUID roomId, User sender) {
         centrifugoPublisher.publish(
                 "/topic/room/" + roomId + "/typing",
                 Map.of("userId", sender.getId().toString(),
-                        "username", sender.getUsername(),
+                        "username", sender.getHandle(),
                         "fullName", sender.getFullName()));
     }
 
@@ -261,8 +470,12 @@ public class ChatService {
 
     @Transactional
     public void markRoomAsRead(UUID roomId, User user) {
-        int msgsUpdated = chatMessageRepository.markMessagesReadInRoom(roomId, user.getId());
-        log.info("Marked {} ChatMessages as read for room {} / user {}", msgsUpdated, roomId, user.getId());
+        chatMessageRepository.findTopByChatRoomIdOrderByCreatedAtDesc(roomId).ifPresent(latest -> {
+            int moved = chatRoomMemberRepository.advanceReadCursor(
+                    roomId, user.getId(), latest.getId(), latest.getCreatedAt());
+            log.info("Read cursor for room {} / user {} {}", roomId, user.getId(),
+                    moved > 0 ? "moved to " + latest.getId() : "already current");
+        });
         notificationService.markRoomNotificationsRead(roomId, user);
         try {
             centrifugoPublisher.publish(
@@ -1,18 +1,17 @@
 package com.plantsocial.backend.chat;
 
 import com.plantsocial.backend.chat.dto.SendMessageRequest;
+import com.plantsocial.backend.realtime.SessionUser;
 import com.plantsocial.backend.user.User;
-import com.plantsocial.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Controller;
 
-import java.security.Principal;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,7 +25,6 @@ public class ChatWebSocketController {
 
     private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
 
     /**
      * Receives a message from a client and broadcasts it to the room's topic.
@@ -37,17 +35,18 @@ public class ChatWebSocketController {
     public void sendMessage(
             @DestinationVariable String roomId,
             @Payload SendMessageRequest request,
-            Principal principal) {
+            SimpMessageHeaderAccessor headers) {
 
         log.info("WS sendMessage invoked for room: {}", roomId);
 
-        User sender = extractUser(principal);
-        if (sender == null) {
-            log.warn("Unauthenticated message attempt! Principal is: {}", principal);
+        SessionUser user = SessionUser.fromAttributes(headers.getSessionAttributes());
+        if (user == null) {
+            log.warn("Unauthenticated message attempt on session {}", headers.getSessionId());
             return;
         }
+        User sender = user.toUserReference();
 
-        log.info("WS sender authenticated: {}", sender.getUsername());
+        log.info("WS sender authenticated: {}", user.handle());
 
         try {
             chatService.sendMessage(
@@ -71,25 +70,15 @@ public class ChatWebSocketController {
     @MessageMapping("/chat.typing/{roomId}")
     public void typing(
             @DestinationVariable String roomId,
-            Principal principal) {
+            SimpMessageHeaderAccessor headers) {
 
-        User sender = extractUser(principal);
+        SessionUser sender = SessionUser.fromAttributes(headers.getSessionAttributes());
         if (sender == null)
             return;
 
         messagingTemplate.convertAndSend("/topic/room/" + roomId + "/typing",
-                Map.of("userId", sender.getId().toString(),
-                        "username", sender.getUsername(),
-                        "fullName", sender.getFullName()));
-    }
-
-    private User extractUser(Principal principal) {
-        if (principal instanceof JwtAuthenticationToken auth) {
-            String username = (String) auth.getTokenAttributes().get("preferred_username");
-            if (username != null) {
-                return userRepository.findByUsername(username).orElse(null);
-            }
-        }
-        return null;
+                Map.of("userId", sender.id().toString(),
+                        "username", sender.handle(),
+                        "fullName", sender.fullName()));
     }
 }
@@ -2,15 +2,15 @@ package com.plantsocial.backend.chat;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import com.plantsocial.backend.user.User;
-import com.plantsocial.backend.user.UserRepository;
+import com.plantsocial.backend.realtime.CentrifugoPublisherService;
+import com.plantsocial.backend.realtime.SessionUser;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -18,75 +18,144 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tracks online presence of connected WebSocket users.
+ *
+ * A user is online while at least one of their sessions is connected (several tabs or
+ * devices each hold a reference). Only transitions are published: a join delta when the
+ * first session connects and a leave delta when the last one goes away, on one of
+ * {@value #SHARDS} shard channels chosen by the first hex digit of the user id. Clients
+ * subscribe to the shards of the users they show (contacts, room members) and fetch a
+ * snapshot for exactly those users from {@link #getOnlineUsers(Collection)}.
  */
 @Slf4j
 @Service
 public class PresenceService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    static final int SHARDS = 16;
+    private static final String CHANNEL_PREFIX = "/topic/presence/";
 
-    // userId → session info
-    private final Map<String, OnlineUser> onlineUsers = new ConcurrentHashMap<>();
+    private final CentrifugoPublisherService centrifugoPublisher;
 
-    public PresenceService(SimpMessagingTemplate messagingTemplate, UserRepository userRepository) {
-        this.messagingTemplate = messagingTemplate;
-        this.userRepository = userRepository;
+    // sessionId → userId, so a disconnect needs no lookup
+    private final Map<String, UUID> sessionUsers = new ConcurrentHashMap<>();
+    private final Map<UUID, Presence> onlineUsers = new ConcurrentHashMap<>();
+
+    public PresenceService(CentrifugoPublisherService centrifugoPublisher) {
+        this.centrifugoPublisher = centrifugoPublisher;
     }
 
     @EventListener
     public void handleWebSocketConnect(SessionConnectedEvent event) {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        if (accessor.getUser() instanceof JwtAuthenticationToken auth) {
-            String username = (String) auth.getTokenAttributes().get("preferred_username");
-            if (username != null) {
-                userRepository.findByUsername(username).ifPresent(user -> {
-                    String sessionId = accessor.getSessionId();
-                    onlineUsers.put(user.getId().toString(), new OnlineUser(
-                            user.getId().toString(),
-                            user.getUsername(),
-                            user.getFullName(),
-                            sessionId,
-                            LocalDateTime.now()));
-                    log.info("User connected: {} (session: {})", user.getUsername(), sessionId);
-                    broadcastPresence();
-                });
+        // The CONNECT_ACK carries the original CONNECT frame, whose session attributes hold
+        // the user resolved by WebSocketAuthInterceptor
+        if (accessor.getHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER) instanceof Message<?> connect) {
+            SessionUser user = SessionUser.from(connect);
+            if (user != null) {
+                sessionConnected(accessor.getSessionId(), user.id(), user.handle(), user.fullName());
             }
         }
     }
 
     @EventListener
     public void handleWebSocketDisconnect(SessionDisconnectEvent event) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        if (accessor.getUser() instanceof JwtAuthenticationToken auth) {
-            String username = (String) auth.getTokenAttributes().get("preferred_username");
-            if (username != null) {
-                userRepository.findByUsername(username).ifPresent(user -> {
-                    onlineUsers.remove(user.getId().toString());
-                    log.info("User disconnected: {}", user.getUsername());
-                    broadcastPresence();
-                });
+        sessionDisconnected(event.getSessionId());
+    }
+
+    void sessionConnected(String sessionId, UUID userId, String username, String fullName) {
+        if (sessionUsers.putIfAbsent(sessionId, userId) != null) {
+            return; // Already counted
+        }
+        boolean[] cameOnline = new boolean[1];
+        onlineUsers.compute(userId, (id, p) -> {
+            if (p == null) {
+                cameOnline[0] = true;
+                return new Presence(username, fullName, LocalDateTime.now(), 1);
+            }
+            return p.withSessions(p.sessions() + 1);
+        });
+        log.info("User connected: {} (session: {})", username, sessionId);
+        if (cameOnline[0]) {
+            publish(new PresenceDelta(userId.toString(), username, fullName, true));
+        }
+    }
+
+    void sessionDisconnected(String sessionId) {
+        // Disconnect can be reported more than once per session; only the first counts
+        UUID userId = sessionId != null ? sessionUsers.remove(sessionId) : null;
+        if (userId == null) {
+            return;
+        }
+        Presence[] wentOffline = new Presence[1];
+        onlineUsers.computeIfPresent(userId, (id, p) -> {
+            if (p.sessions() <= 1) {
+                wentOffline[0] = p;
+                return null;
             }
+            return p.withSessions(p.sessions() - 1);
+        });
+        log.info("User session disconnected: {} (session: {})", userId, sessionId);
+        if (wentOffline[0] != null) {
+            publish(new PresenceDelta(userId.toString(), wentOffline[0].username(), wentOffline[0].fullName(), false));
         }
     }
 
     public List<OnlineUser> getOnlineUsers() {
-        return new ArrayList<>(onlineUsers.values());
+        List<OnlineUser> result = new ArrayList<>(onlineUsers.size());
+        onlineUsers.forEach((id, p) -> result.add(p.toOnlineUser(id)));
+        return result;
+    }
+
+    /** Snapshot restricted to the given users, e.g. a client's contacts or room members. */
+    public List<OnlineUser> getOnlineUsers(Collection<UUID> userIds) {
+        List<OnlineUser> result = new ArrayList<>();
+        for (UUID id : userIds) {
+            Presence p = onlineUsers.get(id);
+            if (p != null) {
+                result.add(p.toOnlineUser(id));
+            }
+        }
+        return result;
     }
 
     public boolean isOnline(String userId) {
-        return onlineUsers.containsKey(userId);
+        try {
+            return onlineUsers.containsKey(UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static String channelFor(String userId) {
+        return CHANNEL_PREFIX + Character.toLowerCase(userId.charAt(0));
     }
 
-    private void broadcastPresence() {
-        messagingTemplate.convertAndSend("/topic/presence", getOnlineUsers());
+    private void publish(PresenceDelta delta) {
+        centrifugoPublisher.publish(channelFor(delta.userId()), delta);
+    }
+
+    private record Presence(String username, String fullName, LocalDateTime connectedAt, int sessions) {
+
+        Presence withSessions(int count) {
+            return new Presence(username, fullName, connectedAt, count);
+        }
+
+        OnlineUser toOnlineUser(UUID id) {
+            return new OnlineUser(id.toString(), username, fullName, sessions, connectedAt);
+        }
     }
 
     public record OnlineUser(
             String userId,
             String username,
             String fullName,
-            String sessionId,
+            int sessions,
             LocalDateTime connectedAt) {
     }
+
+    public record PresenceDelta(
+            String userId,
+            String username,
+            String fullName,
+            boolean online) {
+    }
 }
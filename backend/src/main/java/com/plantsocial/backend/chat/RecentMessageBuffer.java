@@ -0,0 +1,123 @@
+package com.plantsocial.backend.chat;
+
+import com.plantsocial.backend.chat.dto.ChatMessageDTO;
+import com.plantsocial.backend.dto.PageCursor;
+import com.plantsocial.backend.util.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Hot tail of recent messages per room, newest first.
+ *
+ * A room's tail is loaded from the database on first read and then kept current by
+ * {@link #append} as messages are sent (after commit). Only the last
+ * {@code chat.history.buffer-size} messages are kept, and only for a bounded number of
+ * recently used rooms, so opening a room and scrolling its recent history needs no query.
+ */
+@Component
+public class RecentMessageBuffer {
+
+    private static final Comparator<ChatMessageDTO> NEWEST_FIRST = Comparator
+            .comparing(ChatMessageDTO::createdAt, Comparator.reverseOrder())
+            .thenComparing(ChatMessageDTO::id, PageCursor.ID_ORDER.reversed());
+
+    private final LocalCache<UUID, Tail> tails;
+    private final int capacity;
+
+    public RecentMessageBuffer(
+            @Value("${chat.history.buffer-size:100}") int capacity,
+            @Value("${chat.history.buffer-rooms:2000}") int maxRooms,
+            @Value("${chat.history.buffer-ttl:PT30M}") Duration ttl) {
+        this.capacity = capacity;
+        this.tails = new LocalCache<>(maxRooms, ttl);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Up to {@code limit} buffered messages older than {@code before} (or the newest ones
+     * when {@code before} is null), or null when the buffer cannot answer on its own:
+     * {@code before} is not in it, or it runs out before {@code limit} while older
+     * messages exist in the database.
+     *
+     * @param loader loads the newest {@link #capacity()} messages of a room, newest first
+     */
+    public List<ChatMessageDTO> before(UUID roomId, UUID before, int limit,
+            Function<UUID, List<ChatMessageDTO>> loader) {
+        Tail tail = tails.get(roomId, id -> new Tail(loader.apply(id), capacity));
+        return tail.before(before, limit);
+    }
+
+    /**
+     * Adds a just-committed message to the room's tail if that room is buffered. Otherwise
+     * the room is invalidated, so a tail being loaded concurrently (whose query may have
+     * missed this message) is discarded instead of cached.
+     */
+    public void append(UUID roomId, ChatMessageDTO message) {
+        Tail tail = tails.getIfPresent(roomId);
+        if (tail != null) {
+            tail.add(message);
+        } else {
+            tails.invalidate(roomId);
+        }
+    }
+
+    private static final class Tail {
+        private final List<ChatMessageDTO> messages;
+        private final int capacity;
+        // True while the tail holds the room's entire history
+        private boolean complete;
+
+        Tail(List<ChatMessageDTO> newest, int capacity) {
+            this.messages = new ArrayList<>(newest);
+            this.capacity = capacity;
+            this.complete = newest.size() < capacity;
+        }
+
+        synchronized void add(ChatMessageDTO message) {
+            // Commits can land out of order; keep the list sorted and free of duplicates
+            int at = 0;
+            while (at < messages.size() && NEWEST_FIRST.compare(messages.get(at), message) < 0) {
+                at++;
+            }
+            if (at < messages.size() && messages.get(at).id().equals(message.id())) {
+                return;
+            }
+            messages.add(at, message);
+            if (messages.size() > capacity) {
+                messages.remove(messages.size() - 1);
+                complete = false;
+            }
+        }
+
+        synchronized List<ChatMessageDTO> before(UUID before, int limit) {
+            int from = 0;
+            if (before != null) {
+                from = -1;
+                for (int i = 0; i < messages.size(); i++) {
+                    if (messages.get(i).id().equals(before)) {
+                        from = i + 1;
+                        break;
+                    }
+                }
+                if (from < 0) {
+                    return null;
+                }
+            }
+            int to = Math.min(messages.size(), from + limit);
+            if (to - from < limit && !complete) {
+                return null;
+            }
+            return List.copyOf(messages.subList(from, to));
+        }
+    }
+}
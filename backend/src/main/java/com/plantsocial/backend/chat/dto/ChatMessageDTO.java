@@ -15,4 +15,9 @@ public record ChatMessageDTO(
                 String mediaUrl,
                 LocalDateTime createdAt,
                 boolean isRead) {
+
+        public ChatMessageDTO withRead(boolean read) {
+                return read == isRead ? this : new ChatMessageDTO(id, roomId, senderId, senderUsername, senderFullName,
+                                senderProfilePictureUrl, content, messageType, mediaUrl, createdAt, read);
+        }
 }
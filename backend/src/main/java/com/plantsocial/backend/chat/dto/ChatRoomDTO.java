@@ -8,10 +8,11 @@ public record ChatRoomDTO(
                 UUID id,
                 String name,
                 String type,
-                List<MemberInfo> members,
+                List<MemberInfo> members, // In the inbox, a preview of the first few members
                 ChatMessageDTO lastMessage,
                 LocalDateTime createdAt,
-                long unreadCount) {
+                long unreadCount,
+                int memberCount) {
         public record MemberInfo(
                         UUID userId,
                         String username,
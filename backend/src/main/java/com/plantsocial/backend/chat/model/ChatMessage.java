@@ -14,7 +14,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = @Index(name = "idx_chat_messages_room_created", columnList = "chat_room_id, created_at"))
 @EntityListeners(AuditingEntityListener.class)
 public class ChatMessage {
 
@@ -41,9 +41,6 @@ public class ChatMessage {
     @Column(length = 500)
     private String mediaUrl;
 
-    @Builder.Default
-    private Boolean isRead = false;
-
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
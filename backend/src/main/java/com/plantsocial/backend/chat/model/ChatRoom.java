@@ -14,7 +14,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms", uniqueConstraints = @UniqueConstraint(name = "uk_chat_rooms_private_key", columnNames = "private_key"))
 @EntityListeners(AuditingEntityListener.class)
 public class ChatRoom {
 
@@ -33,10 +33,40 @@ public class ChatRoom {
     @JoinColumn(name = "created_by")
     private User createdBy;
 
+    // Private rooms only: the member pair as "lowerId:higherId" (string order), unique so
+    // there is exactly one room per pair; see ChatService#privateKey
+    @Column(name = "private_key", length = 73, updatable = false)
+    private String privateKey;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Inbox summary, maintained by ChatRoomRepository bulk updates on send and on
+    // membership changes; read-only for JPA so saving a room never overwrites it.
+    @Column(insertable = false, updatable = false)
+    private UUID lastMessageId;
+
+    @Column(insertable = false, updatable = false)
+    private UUID lastMessageSenderId;
+
+    @Column(length = 200, insertable = false, updatable = false)
+    private String lastMessagePreview;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, insertable = false, updatable = false)
+    private ChatMessage.MessageType lastMessageType;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int memberCount;
+
+    // First few members as "userId:ROLE" pairs, comma-separated, in join order
+    @Column(columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String memberPreview;
+
     public enum ChatRoomType {
         PRIVATE, GROUP
     }
@@ -14,7 +14,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "chat_room_members", uniqueConstraints = @UniqueConstraint(columnNames = { "chat_room_id", "user_id" }))
+@Table(name = "chat_room_members",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "chat_room_id", "user_id" }),
+        indexes = @Index(name = "idx_chat_room_members_inbox", columnList = "user_id, room_activity_at DESC"))
 @EntityListeners(AuditingEntityListener.class)
 public class ChatRoomMember {
 
@@ -35,6 +37,21 @@ public class ChatRoomMember {
     @Builder.Default
     private MemberRole role = MemberRole.MEMBER;
 
+    // Read cursor: everything in the room up to lastReadAt counts as read for this member,
+    // so marking a room read is one row update and unread counts are an index range scan
+    private UUID lastReadMessageId;
+
+    private LocalDateTime lastReadAt;
+
+    // Per-member inbox row: unread messages since the cursor and the room's last activity,
+    // both bumped for every member by one UPDATE per message (see ChatRoomMemberRepository)
+    @Column(updatable = false, columnDefinition = "integer")
+    @Builder.Default
+    private int unreadCount = 0;
+
+    @Column(updatable = false)
+    private LocalDateTime roomActivityAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime joinedAt;
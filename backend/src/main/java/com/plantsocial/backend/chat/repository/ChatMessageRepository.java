@@ -4,11 +4,11 @@ import com.plantsocial.backend.chat.model.ChatMessage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,13 +18,18 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
 
     Optional<ChatMessage> findTopByChatRoomIdOrderByCreatedAtDesc(UUID chatRoomId);
 
-    @Transactional
-    @Modifying(clearAutomatically = true)
-    @Query("UPDATE ChatMessage m SET m.isRead = true " +
-           "WHERE m.chatRoom.id = :roomId AND m.sender.id != :userId AND m.isRead IS NOT TRUE")
-    int markMessagesReadInRoom(@Param("roomId") UUID roomId, @Param("userId") UUID userId);
+    /** Keyset page of a room's history strictly older than (createdAt, id), senders fetched. */
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.chatRoom.id = :roomId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("roomId") UUID roomId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") UUID id, Pageable pageable);
 
-    @Query("SELECT COUNT(m) FROM ChatMessage m " +
-           "WHERE m.chatRoom.id = :roomId AND m.sender.id != :userId AND m.isRead IS NOT TRUE")
+    /** Messages from others after the member's read cursor; served by idx_chat_messages_room_created. */
+    @Query("SELECT COUNT(m) FROM ChatMessage m, ChatRoomMember rm " +
+           "WHERE rm.chatRoom.id = :roomId AND rm.user.id = :userId " +
+           "AND m.chatRoom.id = :roomId AND m.sender.id <> :userId " +
+           "AND (rm.lastReadAt IS NULL OR m.createdAt > rm.lastReadAt)")
     long countUnreadMessages(@Param("roomId") UUID roomId, @Param("userId") UUID userId);
 }
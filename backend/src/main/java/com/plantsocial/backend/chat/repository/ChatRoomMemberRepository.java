@@ -2,7 +2,11 @@ package com.plantsocial.backend.chat.repository;
 
 import com.plantsocial.backend.chat.model.ChatRoomMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,6 +15,17 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
 
     List<ChatRoomMember> findByChatRoomId(UUID chatRoomId);
 
+    /** The user's inbox: one row per room with its summary, most recently active first. */
+    @Query("SELECT m FROM ChatRoomMember m JOIN FETCH m.chatRoom WHERE m.user.id = :userId " +
+           "ORDER BY m.roomActivityAt DESC, m.id DESC")
+    List<ChatRoomMember> findInboxByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT m FROM ChatRoomMember m JOIN FETCH m.user WHERE m.chatRoom.id = :chatRoomId")
+    List<ChatRoomMember> findWithUserByChatRoomId(@Param("chatRoomId") UUID chatRoomId);
+
+    @Query("SELECT m.user.id FROM ChatRoomMember m WHERE m.chatRoom.id = :chatRoomId")
+    List<UUID> findUserIdsByChatRoomId(@Param("chatRoomId") UUID chatRoomId);
+
     List<ChatRoomMember> findByUserId(UUID userId);
 
     Optional<ChatRoomMember> findByChatRoomIdAndUserId(UUID chatRoomId, UUID userId);
@@ -20,4 +35,19 @@ public interface ChatRoomMemberRepository extends JpaRepository<ChatRoomMember,
     void deleteByChatRoomIdAndUserId(UUID chatRoomId, UUID userId);
 
     long countByChatRoomId(UUID chatRoomId);
+
+    /** A new message: bumps every other member's unread count and the room activity on all rows. */
+    @Modifying
+    @Query("UPDATE ChatRoomMember m SET m.roomActivityAt = :at, " +
+           "m.unreadCount = CASE WHEN m.user.id = :senderId THEN 0 ELSE m.unreadCount + 1 END " +
+           "WHERE m.chatRoom.id = :roomId")
+    int recordMessage(@Param("roomId") UUID roomId, @Param("senderId") UUID senderId, @Param("at") LocalDateTime at);
+
+    /** Moves the member's read cursor forward (clearing the unread count); never backwards, so late or repeated calls are no-ops. */
+    @Modifying
+    @Query("UPDATE ChatRoomMember m SET m.lastReadMessageId = :messageId, m.lastReadAt = :readAt, m.unreadCount = 0 " +
+           "WHERE m.chatRoom.id = :roomId AND m.user.id = :userId " +
+           "AND (m.lastReadAt IS NULL OR m.lastReadAt < :readAt)")
+    int advanceReadCursor(@Param("roomId") UUID roomId, @Param("userId") UUID userId,
+                          @Param("messageId") UUID messageId, @Param("readAt") LocalDateTime readAt);
 }
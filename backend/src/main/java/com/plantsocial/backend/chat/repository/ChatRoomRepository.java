@@ -1,35 +1,55 @@
 package com.plantsocial.backend.chat.repository;
 
+import com.plantsocial.backend.chat.model.ChatMessage;
 import com.plantsocial.backend.chat.model.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, UUID> {
 
-    @Query("""
-                SELECT DISTINCT cr FROM ChatRoom cr
-                JOIN ChatRoomMember crm ON crm.chatRoom = cr
-                WHERE crm.user.id = :userId
-                ORDER BY cr.createdAt DESC
-            """)
-    List<ChatRoom> findRoomsByUserId(@Param("userId") UUID userId);
+    Optional<ChatRoom> findByPrivateKey(String privateKey);
 
+    /**
+     * Creates the private room for a member pair unless one exists. Returns 1 when this call
+     * inserted it; 0 when the pair already had a room (a concurrent insert is waited for).
+     */
+    @Modifying
+    @Query(value = """
+                INSERT INTO chat_rooms (id, type, created_by, created_at, private_key)
+                VALUES (:id, 'PRIVATE', :createdBy, now(), :privateKey)
+                ON CONFLICT (private_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertPrivateIfAbsent(@Param("id") UUID id, @Param("privateKey") String privateKey,
+            @Param("createdBy") UUID createdBy);
+
+    @Modifying
     @Query("""
-                SELECT cr FROM ChatRoom cr
-                WHERE cr.type = 'PRIVATE'
-                AND cr.id IN (
-                    SELECT crm1.chatRoom.id FROM ChatRoomMember crm1
-                    WHERE crm1.user.id = :user1Id
-                )
-                AND cr.id IN (
-                    SELECT crm2.chatRoom.id FROM ChatRoomMember crm2
-                    WHERE crm2.user.id = :user2Id
-                )
+                UPDATE ChatRoom cr
+                SET cr.lastMessageId = :messageId, cr.lastMessageSenderId = :senderId,
+                    cr.lastMessagePreview = :preview, cr.lastMessageType = :type, cr.lastMessageAt = :at
+                WHERE cr.id = :roomId
             """)
-    Optional<ChatRoom> findPrivateRoom(@Param("user1Id") UUID user1Id, @Param("user2Id") UUID user2Id);
+    int recordLastMessage(@Param("roomId") UUID roomId, @Param("messageId") UUID messageId,
+            @Param("senderId") UUID senderId, @Param("preview") String preview,
+            @Param("type") ChatMessage.MessageType type, @Param("at") LocalDateTime at);
+
+    /** Recomputes member_count and the member preview (first 5 by join time) from chat_room_members. */
+    @Modifying
+    @Query(value = """
+                UPDATE chat_rooms SET
+                    member_count = (SELECT COUNT(*) FROM chat_room_members WHERE chat_room_id = :roomId),
+                    member_preview = (SELECT string_agg(p.user_id::text || ':' || p.role, ',' ORDER BY p.joined_at, p.user_id)
+                                      FROM (SELECT user_id, role, joined_at FROM chat_room_members
+                                            WHERE chat_room_id = :roomId
+                                            ORDER BY joined_at, user_id LIMIT 5) p)
+                WHERE id = :roomId
+            """, nativeQuery = true)
+    int refreshMemberSummary(@Param("roomId") UUID roomId);
 }
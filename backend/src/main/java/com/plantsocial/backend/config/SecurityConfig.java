@@ -1,5 +1,6 @@
 package com.plantsocial.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,15 +18,26 @@ import com.plantsocial.backend.user.UserRepository;
 import com.plantsocial.backend.security.JwtUserSyncFilter;
 import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
         private final UserRepository userRepository;
+        private final int verifiedUsersMaxSize;
+        private final Duration verifiedUsersTtl;
+        private final Duration verifiedUsersReportInterval;
 
-        public SecurityConfig(UserRepository userRepository) {
+        public SecurityConfig(UserRepository userRepository,
+                        @Value("${security.verified-users.max-size:100000}") int verifiedUsersMaxSize,
+                        @Value("${security.verified-users.ttl:PT1H}") Duration verifiedUsersTtl,
+                        @Value("${security.verified-users.report-interval:PT10M}") Duration verifiedUsersReportInterval) {
                 this.userRepository = userRepository;
+                this.verifiedUsersMaxSize = verifiedUsersMaxSize;
+                this.verifiedUsersTtl = verifiedUsersTtl;
+                this.verifiedUsersReportInterval = verifiedUsersReportInterval;
         }
 
         @Bean
@@ -62,7 +74,9 @@ public class SecurityConfig {
                         .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
                         
                         // Register our JIT Provisioning filter AFTER Keycloak auth validates the token
-                        .addFilterAfter(new JwtUserSyncFilter(userRepository), BearerTokenAuthenticationFilter.class);
+                        .addFilterAfter(new JwtUserSyncFilter(userRepository, verifiedUsersMaxSize,
+                                        verifiedUsersTtl, verifiedUsersReportInterval),
+                                BearerTokenAuthenticationFilter.class);
 
                 return http.build();
         }
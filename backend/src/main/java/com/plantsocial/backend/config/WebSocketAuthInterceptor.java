@@ -1,5 +1,7 @@
 package com.plantsocial.backend.config;
 
+import com.plantsocial.backend.realtime.SessionUser;
+import com.plantsocial.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
@@ -14,11 +16,14 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Intercepts STOMP CONNECT frames to authenticate the user via a Keycloak-issued JWT.
  * The client must send the token as a STOMP header: Authorization: Bearer <token>
  * Uses JwtDecoder (RSA validation) provided by spring-boot-starter-oauth2-resource-server.
+ * The matching user is resolved once here and stored in the session attributes as a
+ * {@link SessionUser}, which message handlers and presence read instead of the database.
  */
 @Slf4j
 @Component
@@ -26,6 +31,7 @@ import java.util.List;
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtDecoder jwtDecoder;
+    private final UserRepository userRepository;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -42,6 +48,7 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                         Jwt jwt = jwtDecoder.decode(token);
                         JwtAuthenticationToken authentication = new JwtAuthenticationToken(jwt);
                         accessor.setUser(authentication);
+                        attachSessionUser(accessor, jwt.getClaimAsString("preferred_username"));
                         log.debug("WebSocket authenticated user: {}", jwt.getSubject());
                     } catch (Exception e) {
                         log.warn("WebSocket JWT validation failed: {}", e.getMessage());
@@ -53,4 +60,13 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
         return message;
     }
+
+    private void attachSessionUser(StompHeaderAccessor accessor, String username) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || username == null) {
+            return;
+        }
+        userRepository.findByUsername(username)
+                .ifPresent(user -> attributes.put(SessionUser.ATTRIBUTE, SessionUser.of(user)));
+    }
 }
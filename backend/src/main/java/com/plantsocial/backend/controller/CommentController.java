@@ -2,6 +2,7 @@ package com.plantsocial.backend.controller;
 
 import com.plantsocial.backend.dto.CommentRequest;
 import com.plantsocial.backend.dto.CommentResponse;
+import com.plantsocial.backend.dto.CommentThreadResponse;
 import com.plantsocial.backend.service.CommentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,21 @@ public class CommentController {
         return ResponseEntity.ok(commentService.getTopLevelComments(postId));
     }
 
+    /**
+     * Get a page of top-level comments with replies expanded up to {@code depth} levels.
+     * Pass the previous response's {@code nextCursor} as {@code cursor}; {@code page}
+     * is only used when no cursor is given.
+     */
+    @GetMapping("/feed/{postId}/comments/tree")
+    public ResponseEntity<CommentThreadResponse> getCommentTree(
+            @PathVariable UUID postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int depth) {
+        return ResponseEntity.ok(commentService.getThread(postId, cursor, page, size, depth));
+    }
+
     /**
      * Add a top-level comment to a post
      */
@@ -1,5 +1,6 @@
 package com.plantsocial.backend.controller;
 
+import com.plantsocial.backend.dto.CursorPage;
 import com.plantsocial.backend.dto.PostResponse;
 import com.plantsocial.backend.service.FeedService;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,27 @@ public class FeedController {
         }
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<PostResponse>> getFeedPage(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "plant", required = false) String plant,
+            @RequestParam(value = "q", required = false) String query) {
+        return ResponseEntity.ok(feedService.getFeedPage(cursor, size, plant, query));
+    }
+
+    @GetMapping("/following")
+    public ResponseEntity<Page<PostResponse>> getFollowingFeed(Pageable pageable) {
+        return ResponseEntity.ok(feedService.getFollowingFeed(pageable));
+    }
+
+    @GetMapping(value = "/following", params = "cursor")
+    public ResponseEntity<CursorPage<PostResponse>> getFollowingFeedPage(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(feedService.getFollowingFeedPage(cursor, size));
+    }
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<PostResponse> createPost(
             @RequestParam("caption") String caption,
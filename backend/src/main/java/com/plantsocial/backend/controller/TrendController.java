@@ -1,6 +1,7 @@
 package com.plantsocial.backend.controller;
 
 import com.plantsocial.backend.dto.TrendDTO;
+import com.plantsocial.backend.dto.TrendingTagDTO;
 import com.plantsocial.backend.service.TrendService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -22,4 +23,10 @@ public class TrendController {
             @org.springframework.web.bind.annotation.RequestParam(required = false) String tag) {
         return ResponseEntity.ok(trendService.getTrendingTopics(tag));
     }
+
+    @GetMapping("/tags")
+    public ResponseEntity<List<TrendingTagDTO>> getTrendingTags(
+            @org.springframework.web.bind.annotation.RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendService.getTrendingTags(Math.max(1, Math.min(limit, 50))));
+    }
 }
@@ -1,11 +1,13 @@
 package com.plantsocial.backend.controller;
 
+import com.plantsocial.backend.dto.CursorPage;
 import com.plantsocial.backend.dto.PostResponse;
 import com.plantsocial.backend.dto.UserProfileDTO;
 import com.plantsocial.backend.model.Post;
 import com.plantsocial.backend.repository.PostRepository;
 import com.plantsocial.backend.security.SecurityUtils;
 import com.plantsocial.backend.service.FeedService;
+import com.plantsocial.backend.service.FollowGraph;
 import com.plantsocial.backend.user.SubscriptionTier;
 import com.plantsocial.backend.user.User;
 import com.plantsocial.backend.user.UserRepository;
@@ -14,7 +16,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,6 +32,7 @@ public class UserController {
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final FeedService feedService;
+    private final FollowGraph followGraph;
     private final com.plantsocial.backend.service.FileStorageService fileStorageService;
     private final SecurityUtils securityUtils;
 
@@ -55,14 +62,13 @@ public class UserController {
         }
 
         long postCount = postRepository.countByAuthorId(user.getId());
-        long followerCount = user.getFollowers().size();
-        long followingCount = user.getFollowing().size();
+        long followerCount = user.getFollowerCount();
+        long followingCount = user.getFollowingCount();
 
         boolean isFollowing = false;
         User currentUser = getCurrentUserSafe(); // Need safe method or try/catch for auth check
         if (currentUser != null && !currentUser.getId().equals(user.getId())) {
-            isFollowing = user.getFollowers().stream()
-                    .anyMatch(f -> f.getId().equals(currentUser.getId()));
+            isFollowing = userRepository.isFollowing(currentUser.getId(), user.getId());
         }
 
         UserProfileDTO dto = new UserProfileDTO(
@@ -88,10 +94,18 @@ public class UserController {
      */
     @GetMapping("/users/suggestions")
     public ResponseEntity<List<UserProfileDTO>> getSuggestions() {
-        User currentUser = securityUtils.getCurrentUser();
-        List<User> suggestions = userRepository.findSuggestedUsers(
-                currentUser.getId(),
-                PageRequest.of(0, 3));
+        UUID currentUserId = securityUtils.getCurrentUserId();
+        List<User> suggestions = new ArrayList<>(followGraph.isReady()
+                ? findAllInOrder(followGraph.suggest(currentUserId, 3))
+                : List.of());
+        if (suggestions.size() < 3) {
+            // The graph only knows users with follow edges; the database tops up with the rest
+            Set<UUID> taken = suggestions.stream().map(User::getId).collect(Collectors.toSet());
+            userRepository.findSuggestedUsers(currentUserId, PageRequest.of(0, 3 + taken.size())).stream()
+                    .filter(u -> !taken.contains(u.getId()))
+                    .limit(3 - suggestions.size())
+                    .forEach(suggestions::add);
+        }
 
         List<UserProfileDTO> result = suggestions.stream().map(u -> new UserProfileDTO(
                 u.getId(),
@@ -103,8 +117,8 @@ public class UserController {
                 u.getCoverPictureUrl(),
                 u.getCreatedAt(),
                 postRepository.countByAuthorId(u.getId()),
-                (long) u.getFollowers().size(),
-                (long) u.getFollowing().size(),
+                u.getFollowerCount(),
+                u.getFollowingCount(),
                 false, // current user doesn't follow them (that's the point)
                 u.getSubscriptionTier()
         )).collect(Collectors.toList());
@@ -120,7 +134,9 @@ public class UserController {
     public ResponseEntity<List<UserProfileDTO>> getMutualConnections(@PathVariable UUID userId) {
         // optionally verify if current user is requesting their own mutuals or not
 
-        List<User> mutuals = userRepository.findMutualFollowers(userId);
+        List<User> mutuals = followGraph.isReady()
+                ? findAllInOrder(followGraph.mutuals(userId))
+                : userRepository.findMutualFollowers(userId);
 
         List<UserProfileDTO> result = mutuals.stream().map(u -> new UserProfileDTO(
                 u.getId(),
@@ -132,8 +148,8 @@ public class UserController {
                 u.getCoverPictureUrl(),
                 u.getCreatedAt(),
                 postRepository.countByAuthorId(u.getId()),
-                (long) u.getFollowers().size(),
-                (long) u.getFollowing().size(),
+                u.getFollowerCount(),
+                u.getFollowingCount(),
                 true, // Since they are mutuals, the current user MUST be following them
                 u.getSubscriptionTier()
         )).collect(Collectors.toList());
@@ -151,11 +167,15 @@ public class UserController {
                                                  // though typically won't hit here due to feedService mapping requiring
                                                  // a User mostly. Actually, better use safe.
 
-        List<PostResponse> responses = posts.stream()
-                .map(post -> feedService.mapToPostResponsePublic(post, currentUser))
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(feedService.mapToPostResponses(posts, currentUser));
+    }
 
-        return ResponseEntity.ok(responses);
+    @GetMapping(value = "/posts/user/{userId}", params = "cursor")
+    public ResponseEntity<CursorPage<PostResponse>> getUserPostsPage(
+            @PathVariable UUID userId,
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(feedService.getUserPostsPage(userId, cursor, size));
     }
 
     /**
@@ -194,10 +214,11 @@ public class UserController {
         }
 
         userRepository.save(currentUser);
+        securityUtils.evict(currentUser.getId());
 
         long postCount = postRepository.countByAuthorId(currentUser.getId());
-        long followerCount = currentUser.getFollowers().size();
-        long followingCount = currentUser.getFollowing().size();
+        long followerCount = currentUser.getFollowerCount();
+        long followingCount = currentUser.getFollowingCount();
 
         return ResponseEntity.ok(new UserProfileDTO(
                 currentUser.getId(),
@@ -220,9 +241,17 @@ public class UserController {
         User currentUser = securityUtils.getCurrentUser();
         currentUser.setSubscriptionTier(SubscriptionTier.PRO);
         userRepository.save(currentUser);
+        securityUtils.evict(currentUser.getId());
         return ResponseEntity.ok().build();
     }
 
+    // findAllById does not keep the order of the ids it is given
+    private List<User> findAllInOrder(List<UUID> ids) {
+        Map<UUID, User> byId = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
     private User getCurrentUserSafe() {
         return securityUtils.getCurrentUserOrNull();
     }
@@ -0,0 +1,16 @@
+package com.plantsocial.backend.dto;
+
+import java.util.List;
+
+/**
+ * A page of a post's comment thread. {@code totalTopLevel} is only counted for offset
+ * pages; it is null when the page was requested by cursor.
+ */
+public record CommentThreadResponse(
+        List<CommentTreeNode> comments,
+        int page,
+        int size,
+        Long totalTopLevel,
+        boolean hasMore,
+        String nextCursor) {
+}
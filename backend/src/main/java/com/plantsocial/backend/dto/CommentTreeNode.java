@@ -0,0 +1,14 @@
+package com.plantsocial.backend.dto;
+
+import java.util.List;
+
+/**
+ * A comment with its loaded replies. Only the oldest replies of each comment are
+ * included, and none once the depth limit cuts the tree; {@code moreReplies} counts
+ * the rest, which the client loads through /comments/{id}/replies.
+ */
+public record CommentTreeNode(
+        CommentResponse comment,
+        List<CommentTreeNode> replies,
+        long moreReplies) {
+}
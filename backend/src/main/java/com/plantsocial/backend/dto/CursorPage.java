@@ -0,0 +1,29 @@
+package com.plantsocial.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated list. {@code nextCursor} is null on the last slice.
+ * Deliberately has no total count, so producing it never needs a COUNT(*) query.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasMore) {
+
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * Builds a slice from {@code size + 1} fetched rows: the extra row only tells us
+     * whether another slice exists and is dropped from the content.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, PageCursor> keyOf,
+            Function<List<E>, List<T>> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> slice = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore ? keyOf.apply(slice.get(slice.size() - 1)).encode() : null;
+        return new CursorPage<>(mapper.apply(slice), next, hasMore);
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
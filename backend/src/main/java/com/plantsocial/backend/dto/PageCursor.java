@@ -0,0 +1,51 @@
+package com.plantsocial.backend.dto;
+
+import com.plantsocial.backend.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Keyset position in a newest-first list ordered by (createdAt DESC, id DESC).
+ * Clients only ever see the opaque URL-safe token produced by {@link #encode()}.
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id) {
+
+    public static final String INVALID_CURSOR = "INVALID_CURSOR";
+
+    /** Position before the newest row: every real row sorts after it. */
+    public static final PageCursor START = new PageCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L));
+
+    /**
+     * Ascending id order as Postgres compares uuid values (unsigned, most significant bits first).
+     * {@link UUID#compareTo} compares signed longs, which disagrees for ids with the high bit set.
+     */
+    public static final Comparator<UUID> ID_ORDER = (a, b) -> {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a client token; a missing or empty token means "first page". */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(INVALID_CURSOR, "Invalid cursor");
+        }
+    }
+}
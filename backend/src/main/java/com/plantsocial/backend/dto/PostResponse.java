@@ -23,4 +23,11 @@ public record PostResponse(
         long repostCount,
         boolean isRepostedByCurrentUser,
         String authorSubscriptionTier) {
+
+    /** Copy with the viewer-specific flags replaced; everything else is shared. */
+    public PostResponse withViewerFlags(boolean liked, boolean reposted, PostResponse original) {
+        return new PostResponse(id, content, imageUrl, authorName, authorUsername, authorId, createdAt,
+                likesCount, commentCount, liked, plantId, plantNickname, plantTag, authorProfilePictureUrl,
+                original, repostCount, reposted, authorSubscriptionTier);
+    }
 }
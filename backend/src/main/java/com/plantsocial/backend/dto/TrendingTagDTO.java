@@ -0,0 +1,6 @@
+package com.plantsocial.backend.dto;
+
+public record TrendingTagDTO(
+        String tag,
+        long activity) {
+}
@@ -27,7 +27,7 @@ public class MarketplaceController {
     @PostMapping(value = "/upload", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadImage(
             @RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
-        UUID userId = securityUtils.getCurrentUser().getId();
+        UUID userId = securityUtils.getCurrentUserId();
         String fileUrl = fileStorageService.storeFile(file, userId, "marketplace");
         return ResponseEntity.ok(fileUrl);
     }
@@ -43,7 +43,7 @@ public class MarketplaceController {
 
     @PostMapping("/listings")
     public ResponseEntity<ListingResponse> createListing(@Valid @RequestBody ListingRequest request) {
-        return ResponseEntity.ok(marketplaceService.createListing(request, securityUtils.getCurrentUser().getEmail()));
+        return ResponseEntity.ok(marketplaceService.createListing(request, securityUtils.getCurrentUserSnapshot().email()));
     }
 
     @PostMapping("/listings/{id}/pay")
@@ -58,7 +58,7 @@ public class MarketplaceController {
 
     @GetMapping("/my-listings")
     public ResponseEntity<List<ListingResponse>> getMyListings() {
-        return ResponseEntity.ok(marketplaceService.getListingsByUser(securityUtils.getCurrentUser().getEmail()));
+        return ResponseEntity.ok(marketplaceService.getListingsByUser(securityUtils.getCurrentUserSnapshot().email()));
     }
 
     @GetMapping("/listings/{id}")
@@ -68,7 +68,7 @@ public class MarketplaceController {
 
     @DeleteMapping("/listings/{id}")
     public ResponseEntity<Void> deleteListing(@PathVariable UUID id) {
-        marketplaceService.deleteListing(id, securityUtils.getCurrentUser().getEmail());
+        marketplaceService.deleteListing(id, securityUtils.getCurrentUserSnapshot().email());
         return ResponseEntity.noContent().build();
     }
 
@@ -76,11 +76,11 @@ public class MarketplaceController {
     public ResponseEntity<ListingResponse> updateListing(
             @PathVariable UUID id,
             @Valid @RequestBody ListingRequest request) {
-        return ResponseEntity.ok(marketplaceService.updateListing(id, request, securityUtils.getCurrentUser().getEmail()));
+        return ResponseEntity.ok(marketplaceService.updateListing(id, request, securityUtils.getCurrentUserSnapshot().email()));
     }
 
     @PostMapping("/listings/{id}/boost/free")
     public ResponseEntity<ListingResponse> applyFreeBoost(@PathVariable UUID id) {
-        return ResponseEntity.ok(marketplaceService.applyFreeBoost(id, securityUtils.getCurrentUser().getEmail()));
+        return ResponseEntity.ok(marketplaceService.applyFreeBoost(id, securityUtils.getCurrentUserSnapshot().email()));
     }
 }
@@ -44,12 +44,28 @@ public class Post {
     @JoinColumn(name = "repost_of_id")
     private Post repostOf;
 
+    // Original post at the end of the repost chain, set when the repost is created
+    // (backfilled by RepostRootBackfill); null for original posts.
+    @Column(name = "root_post_id")
+    private UUID rootPostId;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     private String plantTag;
 
+    // Denormalized counters, maintained by PostCounterAggregator via batched UPDATEs.
+    // Read-only for JPA so saving a Post never overwrites increments flushed in between.
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long likeCount;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long commentCount;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long repostCount;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Comment> comments = new ArrayList<>();
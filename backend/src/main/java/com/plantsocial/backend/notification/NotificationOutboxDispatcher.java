@@ -0,0 +1,386 @@
+package com.plantsocial.backend.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plantsocial.backend.notification.model.NotificationOutbox;
+import com.plantsocial.backend.notification.repository.NotificationOutboxRepository;
+import com.plantsocial.backend.realtime.CentrifugoPublisherService;
+import com.plantsocial.backend.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers real-time notification pushes from the outbox table.
+ *
+ * Pushes are written by {@link #enqueue} inside the caller's transaction, so the HTTP
+ * call to Centrifugo never holds a DB connection or row lock. After commit (and on a
+ * polling interval as a safety net) a coordinator claims due rows in batches with
+ * FOR UPDATE SKIP LOCKED plus a short lease, then hands each recipient's rows to one
+ * of N single-threaded stripes keyed by recipient, which keeps per-recipient order.
+ * Failed pushes are retried with exponential backoff and jitter, up to a maximum
+ * number of attempts. At most {@code max-in-flight} claimed rows wait in the stripes at
+ * once; the coordinator stops claiming while they are full, so a claimed row is sent
+ * well within its lease and is not reclaimed by another poll in the meantime.
+ *
+ * A group fan-out ({@link #enqueueBatch}) writes one row per recipient under a shared
+ * batch key. Fan-out rows that are first in their recipient's queue go out together in
+ * one Centrifugo batch request; rows queued behind them are left for a later drain,
+ * which keeps every recipient's pushes in order.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final String INSERT_BATCH_SQL = """
+            INSERT INTO notification_outbox (recipient_id, channel, payload, attempts, batch_key, created_at)
+            VALUES (?, ?, ?, 0, ?, now())
+            """;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CentrifugoPublisherService centrifugoPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int leaseSeconds;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxInFlight;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("outbox-coordinator").daemon().factory());
+    private final ExecutorService[] stripes;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean saturated = new AtomicBoolean();
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+            JdbcTemplate jdbcTemplate,
+            CentrifugoPublisherService centrifugoPublisher,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${notifications.outbox.dispatcher-threads:4}") int threads,
+            @Value("${notifications.outbox.batch-size:100}") int batchSize,
+            @Value("${notifications.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${notifications.outbox.lease-seconds:30}") int leaseSeconds,
+            @Value("${notifications.outbox.base-backoff-ms:500}") long baseBackoffMs,
+            @Value("${notifications.outbox.max-backoff-ms:60000}") long maxBackoffMs,
+            @Value("${notifications.outbox.max-in-flight:400}") int maxInFlight) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.centrifugoPublisher = centrifugoPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxInFlight = maxInFlight;
+        this.stripes = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            stripes[i] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("outbox-dispatch-" + i).daemon().factory());
+        }
+    }
+
+    /**
+     * Records a push in the current transaction; delivery starts once it commits.
+     */
+    public void enqueue(UUID recipientId, String channel, Object data) {
+        outboxRepository.save(NotificationOutbox.builder()
+                .recipientId(recipientId)
+                .channel(channel)
+                .payload(toJson(data))
+                .build());
+        AfterCommit.run(this::wake);
+    }
+
+    /** One recipient's share of a group fan-out. */
+    public record Push(UUID recipientId, String channel, Object data) {
+    }
+
+    /**
+     * Records a push per recipient in the current transaction, as one JDBC batch. The rows
+     * share a batch key so they can be delivered with one batch request.
+     */
+    public void enqueueBatch(List<Push> pushes) {
+        if (pushes.isEmpty()) {
+            return;
+        }
+        String batchKey = UUID.randomUUID().toString();
+        jdbcTemplate.batchUpdate(INSERT_BATCH_SQL, pushes.stream()
+                .map(push -> new Object[] { push.recipientId(), push.channel(), toJson(push.data()), batchKey })
+                .toList());
+        AfterCommit.run(this::wake);
+    }
+
+    /**
+     * Debounced push: if a push with the same key is still waiting, only its payload is
+     * replaced; otherwise a new push is queued to go out after {@code debounceMs}. A burst
+     * of updates to one notification therefore costs one publish per interval.
+     */
+    public void enqueueDebounced(UUID recipientId, String channel, Object data, String dedupKey, long debounceMs) {
+        String payload = toJson(data);
+        if (outboxRepository.refreshPending(dedupKey, payload) == 0) {
+            outboxRepository.insertDelayed(recipientId, channel, payload, debounceMs / 1000.0, dedupKey);
+        }
+        // Nothing is due yet; the poller picks the row up once the debounce elapses
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    // Coalesces wake-ups: at most one drain is queued behind the running one
+    private void wake() {
+        if (drainRequested.compareAndSet(false, true)) {
+            coordinator.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainRequested.set(false);
+        try {
+            Claim claim;
+            int limit;
+            do {
+                limit = Math.min(batchSize, maxInFlight - inFlight.get());
+                if (limit <= 0) {
+                    // Stripes are full; the next finished group wakes the coordinator again
+                    saturated.set(true);
+                    return;
+                }
+                claim = claim(limit);
+                dispatch(claim.rows());
+            } while (claim.found() == limit);
+        } catch (Exception e) {
+            log.warn("Notification outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    // Rows leased for delivery, and how many were claimable (the drain continues while full)
+    private record Claim(List<NotificationOutbox> rows, int found) {
+    }
+
+    private Claim claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            List<NotificationOutbox> found = outboxRepository.findClaimable(limit);
+            List<NotificationOutbox> rows = deliverableNow(found);
+            if (!rows.isEmpty()) {
+                outboxRepository.lease(rows.stream().map(NotificationOutbox::getId).toList(), leaseSeconds);
+            }
+            return new Claim(rows, found.size());
+        });
+    }
+
+    /**
+     * Drops rows that must wait for a fan-out row of the same recipient. A fan-out row is
+     * sent outside its recipient's stripe, so it is only taken when it is the recipient's
+     * first row in the claim, and nothing behind it is taken until it is delivered.
+     * Unleased rows stay held behind the leased fan-out row by {@code findClaimable}.
+     */
+    private static List<NotificationOutbox> deliverableNow(List<NotificationOutbox> found) {
+        List<NotificationOutbox> rows = new ArrayList<>(found.size());
+        Set<UUID> seen = new HashSet<>();
+        Set<UUID> waiting = new HashSet<>();
+        for (NotificationOutbox row : found) {
+            UUID recipientId = row.getRecipientId();
+            if (waiting.contains(recipientId)) {
+                continue;
+            }
+            if (row.getBatchKey() != null) {
+                waiting.add(recipientId);
+                if (seen.contains(recipientId)) {
+                    continue;
+                }
+            }
+            seen.add(recipientId);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void dispatch(List<NotificationOutbox> rows) {
+        Map<UUID, List<NotificationOutbox>> byRecipient = new LinkedHashMap<>();
+        Map<String, List<NotificationOutbox>> byBatch = new LinkedHashMap<>();
+        for (NotificationOutbox row : rows) {
+            if (row.getBatchKey() != null) {
+                byBatch.computeIfAbsent(row.getBatchKey(), k -> new ArrayList<>()).add(row);
+            } else {
+                byRecipient.computeIfAbsent(row.getRecipientId(), k -> new ArrayList<>()).add(row);
+            }
+        }
+        inFlight.addAndGet(rows.size());
+        long claimedAt = System.nanoTime();
+        byRecipient.forEach((recipientId, group) -> submit(recipientId, group, claimedAt, () -> deliver(group)));
+        // Rows queued behind a fan-out were left unclaimed; wake so they follow it promptly
+        byBatch.forEach((batchKey, group) -> submit(batchKey, group, claimedAt, () -> {
+            deliverBatch(group);
+            wake();
+        }));
+    }
+
+    private void submit(Object stripeKey, List<NotificationOutbox> group, long claimedAt, Runnable delivery) {
+        stripes[Math.floorMod(stripeKey.hashCode(), stripes.length)].execute(() -> {
+            try {
+                renewLeaseIfOld(group, claimedAt);
+                delivery.run();
+            } finally {
+                inFlight.addAndGet(-group.size());
+                if (saturated.compareAndSet(true, false)) {
+                    wake();
+                }
+            }
+        });
+    }
+
+    // A group that waited in its stripe for over half the lease gets a fresh one before sending
+    private void renewLeaseIfOld(List<NotificationOutbox> group, long claimedAt) {
+        if (System.nanoTime() - claimedAt < TimeUnit.SECONDS.toNanos(leaseSeconds) / 2) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.lease(
+                    group.stream().map(NotificationOutbox::getId).toList(), leaseSeconds));
+        } catch (Exception e) {
+            log.warn("Could not renew outbox lease: {}", e.getMessage());
+        }
+    }
+
+    // Stops at the first failure so later pushes for the recipient wait behind it
+    private void deliver(List<NotificationOutbox> group) {
+        List<Long> done = new ArrayList<>(group.size());
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                NotificationOutbox row = group.get(i);
+                if (publish(row)) {
+                    done.add(row.getId());
+                } else {
+                    List<Long> rest = group.subList(i + 1, group.size()).stream()
+                            .map(NotificationOutbox::getId).toList();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        retryLater(row);
+                        if (!rest.isEmpty()) {
+                            outboxRepository.release(rest);
+                        }
+                    });
+                    break;
+                }
+            }
+            if (!done.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllByIdInBatch(done));
+            }
+        } catch (Exception e) {
+            // Leases expire, so unfinished rows are picked up again by a later drain
+            log.warn("Notification outbox delivery failed for recipient {}: {}",
+                    group.get(0).getRecipientId(), e.getMessage());
+        }
+    }
+
+    // One fan-out's rows, each first in its recipient's queue, sent with one batch request
+    private void deliverBatch(List<NotificationOutbox> group) {
+        try {
+            List<NotificationOutbox> sendable = new ArrayList<>(group.size());
+            List<Long> unreadable = new ArrayList<>();
+            List<Map.Entry<String, ?>> pushes = new ArrayList<>(group.size());
+            for (NotificationOutbox row : group) {
+                JsonNode data = readPayload(row);
+                if (data != null) {
+                    sendable.add(row);
+                    pushes.add(Map.entry(row.getChannel(), data));
+                } else {
+                    unreadable.add(row.getId());
+                }
+            }
+            // Pushes the request failed to deliver, or Centrifugo rejected, are retried on their own
+            BitSet undelivered = centrifugoPublisher.tryPublishBatch(pushes);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> done = new ArrayList<>(unreadable);
+                for (int i = 0; i < sendable.size(); i++) {
+                    if (undelivered.get(i)) {
+                        retryLater(sendable.get(i));
+                    } else {
+                        done.add(sendable.get(i).getId());
+                    }
+                }
+                if (!done.isEmpty()) {
+                    outboxRepository.deleteAllByIdInBatch(done);
+                }
+            });
+        } catch (Exception e) {
+            // Leases expire, so unfinished rows are picked up again by a later drain
+            log.warn("Notification outbox batch delivery failed for {} rows: {}", group.size(), e.getMessage());
+        }
+    }
+
+    private boolean publish(NotificationOutbox row) {
+        JsonNode data = readPayload(row);
+        return data == null || centrifugoPublisher.tryPublish(row.getChannel(), data);
+    }
+
+    // Null for a payload that can never be delivered; such rows are dropped
+    private JsonNode readPayload(NotificationOutbox row) {
+        try {
+            return objectMapper.readTree(row.getPayload());
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable outbox row {}: {}", row.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void retryLater(NotificationOutbox row) {
+        int attempts = row.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on outbox row {} for channel {} after {} attempts",
+                    row.getId(), row.getChannel(), attempts);
+            outboxRepository.deleteById(row.getId());
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempts, 20));
+        // Jitter in [backoff/2, backoff] so retries from many rows do not align
+        double delaySeconds = (backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1)) / 1000.0;
+        outboxRepository.reschedule(List.of(row.getId()), delaySeconds);
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize notification payload", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.plantsocial.backend.notification;
 
+import com.plantsocial.backend.dto.CursorPage;
 import com.plantsocial.backend.notification.dto.NotificationDTO;
 import com.plantsocial.backend.security.SecurityUtils;
 import com.plantsocial.backend.user.User;
@@ -27,10 +28,18 @@ public class NotificationRestController {
         return notificationService.getNotifications(user, pageable);
     }
 
+    @GetMapping(params = "cursor")
+    public CursorPage<NotificationDTO> getNotificationsPage(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        User user = securityUtils.getCurrentUser();
+        return notificationService.getNotificationsPage(user, cursor, size);
+    }
+
     @GetMapping("/unread-count")
     public long getUnreadCount() {
-        User user = securityUtils.getCurrentUser();
-        return notificationService.getUnreadCount(user);
+        // Only the id from the JWT is needed; the badge never loads the users row
+        return notificationService.getUnreadCount(securityUtils.getCurrentUserId());
     }
 
     @PostMapping("/{id}/read")
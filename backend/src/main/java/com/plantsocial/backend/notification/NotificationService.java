@@ -1,18 +1,34 @@
 package com.plantsocial.backend.notification;
 
+import com.plantsocial.backend.dto.CursorPage;
+import com.plantsocial.backend.dto.PageCursor;
 import com.plantsocial.backend.notification.dto.NotificationDTO;
 import com.plantsocial.backend.notification.model.Notification;
 import com.plantsocial.backend.notification.model.NotificationType;
 import com.plantsocial.backend.notification.repository.NotificationRepository;
-import com.plantsocial.backend.realtime.CentrifugoPublisherService;
 import com.plantsocial.backend.user.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -20,8 +36,29 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int MAX_RECENT_ACTORS = 5;
+
+    private static final String INSERT_OPEN_SQL = """
+            INSERT INTO notifications (id, recipient_id, sender_id, type, content, related_id, is_read,
+                actor_count, recent_actor_ids, merge_open, last_activity_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, false, 1, ?, true, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String ADD_ACTOR_SQL =
+            "INSERT INTO notification_actors (notification_id, actor_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
     private final NotificationRepository notificationRepository;
-    private final CentrifugoPublisherService centrifugoPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationOutboxDispatcher outboxDispatcher;
+    private final UnreadNotificationCounter unreadCounter;
+
+    // Events with the same (recipient, type, relatedId) within this window merge into one row
+    @Value("${notifications.coalesce.window:PT1H}")
+    private Duration coalesceWindow;
+
+    @Value("${notifications.coalesce.push-debounce-ms:2000}")
+    private long pushDebounceMs;
 
     @Transactional
     public void createNotification(User recipient, User sender, NotificationType type, String content, UUID relatedId) {
@@ -33,46 +70,262 @@ public class NotificationService {
             return; // Don't notify self for likes/comments
         }
 
-        Notification notification = Notification.builder()
+        LocalDateTime now = LocalDateTime.now();
+        if (relatedId != null && !coalesceWindow.isZero()) {
+            UUID recipientId = recipient.getId();
+            LocalDateTime since = now.minus(coalesceWindow);
+            Notification open = lockOpen(List.of(recipientId), type, relatedId, since).get(recipientId);
+            if (open == null) {
+                notificationRepository.closeStaleOpen(List.of(recipientId), type, relatedId, since);
+                UUID id = UUID.randomUUID();
+                if (!insertOpen(Map.of(recipientId, id), sender, type, content, relatedId, now).isEmpty()) {
+                    addActor(List.of(id), sender);
+                    Notification saved = notificationRepository.findById(id).orElseThrow();
+                    unreadCounter.adjust(recipientId, 1);
+                    sendRealTimeNotification(saved);
+                    return;
+                }
+                // A concurrent first event inserted the open row; merge into that one
+                open = lockOpen(List.of(recipientId), type, relatedId, since).get(recipientId);
+            }
+            if (open != null) {
+                mergeInto(open, sender, content, now, addActor(List.of(open.getId()), sender)[0]);
+                notificationRepository.save(open);
+                outboxDispatcher.enqueueDebounced(recipientId, channelFor(recipientId),
+                        mapToDTO(open), open.getId().toString(), pushDebounceMs);
+                return;
+            }
+        }
+
+        Notification saved = notificationRepository.save(newNotification(recipient, sender, type, content, relatedId, now));
+        unreadCounter.adjust(recipient.getId(), 1);
+        sendRealTimeNotification(saved);
+    }
+
+    /**
+     * Same event for many recipients (e.g. a chat message to every other room member).
+     * Open rows are merged and new rows inserted with one JDBC batch each, and the pushes
+     * are queued as one outbox fan-out delivered in one Centrifugo batch request.
+     */
+    @Transactional
+    public void createGroupNotifications(Collection<User> recipients, User sender, NotificationType type,
+            String content, UUID relatedId) {
+        Map<UUID, User> byId = new LinkedHashMap<>();
+        for (User recipient : recipients) {
+            if (sender == null || !recipient.getId().equals(sender.getId())) {
+                byId.putIfAbsent(recipient.getId(), recipient);
+            }
+        }
+        if (byId.isEmpty()) {
+            return;
+        }
+        log.info("Creating {} notifications type={} related={}", byId.size(), type, relatedId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, Notification> rows = new HashMap<>();
+        List<UUID> newRecipients = new ArrayList<>();
+        if (relatedId != null && !coalesceWindow.isZero()) {
+            LocalDateTime since = now.minus(coalesceWindow);
+            Map<UUID, Notification> open = lockOpen(byId.keySet(), type, relatedId, since);
+            Map<UUID, UUID> fresh = new LinkedHashMap<>();
+            byId.keySet().stream().filter(id -> !open.containsKey(id)).forEach(id -> fresh.put(id, UUID.randomUUID()));
+            List<Notification> created = List.of();
+            if (!fresh.isEmpty()) {
+                notificationRepository.closeStaleOpen(fresh.keySet(), type, relatedId, since);
+                Set<UUID> inserted = insertOpen(fresh, sender, type, content, relatedId, now);
+                List<UUID> lost = fresh.keySet().stream().filter(id -> !inserted.contains(id)).toList();
+                if (!lost.isEmpty()) {
+                    // Concurrent first events inserted these recipients' open rows
+                    open.putAll(lockOpen(lost, type, relatedId, since));
+                }
+                created = notificationRepository.findAllById(inserted.stream().map(fresh::get).toList());
+                created.forEach(n -> rows.put(n.getRecipient().getId(), n));
+                newRecipients.addAll(inserted);
+            }
+
+            List<Notification> merged = new ArrayList<>(open.values());
+            List<UUID> actorRows = new ArrayList<>(created.size() + merged.size());
+            created.forEach(n -> actorRows.add(n.getId()));
+            merged.forEach(n -> actorRows.add(n.getId()));
+            boolean[] newActor = addActor(actorRows, sender);
+            for (int i = 0; i < merged.size(); i++) {
+                Notification n = merged.get(i);
+                mergeInto(n, sender, content, now, newActor[created.size() + i]);
+                rows.put(n.getRecipient().getId(), n);
+            }
+            notificationRepository.saveAll(merged);
+        }
+
+        List<Notification> plain = new ArrayList<>();
+        byId.forEach((recipientId, recipient) -> {
+            if (!rows.containsKey(recipientId)) {
+                plain.add(newNotification(recipient, sender, type, content, relatedId, now));
+                newRecipients.add(recipientId);
+            }
+        });
+        notificationRepository.saveAll(plain).forEach(n -> rows.put(n.getRecipient().getId(), n));
+        unreadCounter.adjustAll(newRecipients, 1);
+
+        outboxDispatcher.enqueueBatch(byId.keySet().stream()
+                .map(recipientId -> new NotificationOutboxDispatcher.Push(recipientId, channelFor(recipientId),
+                        mapToDTO(rows.get(recipientId))))
+                .toList());
+    }
+
+    // Rows created outside coalescing (no relatedId, window disabled, or a lost race against
+    // a row that was read meanwhile) never take part in merges.
+    private static Notification newNotification(User recipient, User sender, NotificationType type, String content,
+            UUID relatedId, LocalDateTime now) {
+        return Notification.builder()
                 .recipient(recipient)
                 .sender(sender)
                 .type(type)
                 .content(content)
                 .relatedId(relatedId)
                 .isRead(false)
+                .actorCount(1)
+                .recentActorIds(sender != null ? sender.getId().toString() : null)
+                .mergeOpen(false)
+                .lastActivityAt(now)
                 .build();
+    }
 
-        Notification saved = notificationRepository.save(notification);
-        sendRealTimeNotification(saved);
+    // Each recipient's open row within the window, locked so concurrent merges serialize
+    private Map<UUID, Notification> lockOpen(Collection<UUID> recipientIds, NotificationType type, UUID relatedId,
+            LocalDateTime since) {
+        Map<UUID, Notification> open = new HashMap<>();
+        notificationRepository.findOpenForMergeIn(recipientIds, type, relatedId, since)
+                .forEach(n -> open.putIfAbsent(n.getRecipient().getId(), n));
+        return open;
+    }
+
+    /**
+     * Inserts the open row for each recipient (keys) under the given ids (values), unless a
+     * concurrent event got there first; uk_notifications_open turns that race into a no-op.
+     * Returns the recipients whose row was inserted.
+     */
+    private Set<UUID> insertOpen(Map<UUID, UUID> idByRecipient, User sender, NotificationType type, String content,
+            UUID relatedId, LocalDateTime now) {
+        List<UUID> recipientIds = new ArrayList<>(idByRecipient.keySet());
+        UUID senderId = sender != null ? sender.getId() : null;
+        Timestamp at = Timestamp.valueOf(now);
+        List<Object[]> args = recipientIds.stream()
+                .map(recipientId -> new Object[] { idByRecipient.get(recipientId), recipientId, senderId, type.name(),
+                        content, relatedId, senderId != null ? senderId.toString() : null, at, at })
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_OPEN_SQL, args);
+        Set<UUID> inserted = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted.add(recipientIds.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    // Adds the actor to each notification's distinct actor set; true where it was not there yet
+    private boolean[] addActor(List<UUID> notificationIds, User actor) {
+        boolean[] added = new boolean[notificationIds.size()];
+        if (actor == null || notificationIds.isEmpty()) {
+            return added;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(ADD_ACTOR_SQL,
+                notificationIds.stream().map(id -> new Object[] { id, actor.getId() }).toList());
+        for (int i = 0; i < counts.length; i++) {
+            added[i] = counts[i] > 0;
+        }
+        return added;
+    }
+
+    // Folds one more event into an unread notification. actorCount only grows when the
+    // sender is new to the row's notification_actors set, so an actor toggling a like
+    // off and on never reads as another person.
+    private void mergeInto(Notification n, User sender, String content, LocalDateTime now, boolean newActor) {
+        if (sender != null) {
+            List<String> recent = new ArrayList<>();
+            if (n.getRecentActorIds() != null && !n.getRecentActorIds().isBlank()) {
+                recent.addAll(Arrays.asList(n.getRecentActorIds().split(",")));
+            }
+            String actorId = sender.getId().toString();
+            recent.remove(actorId);
+            if (newActor) {
+                n.setActorCount(n.getActorCount() + 1);
+            }
+            recent.add(0, actorId);
+            n.setRecentActorIds(String.join(",", recent.subList(0, Math.min(recent.size(), MAX_RECENT_ACTORS))));
+            n.setSender(sender);
+        }
+        n.setContent(coalescedContent(n.getActorCount(), sender, content));
+        n.setLastActivityAt(now);
+    }
+
+    /**
+     * "Alice liked your post" becomes "Alice and 41 others liked your post";
+     * "New message from Alice" becomes "New message from Alice and 2 others".
+     */
+    static String coalescedContent(int actorCount, User latestActor, String content) {
+        int others = actorCount - 1;
+        if (others <= 0 || latestActor == null || content == null) {
+            return content;
+        }
+        String name = latestActor.getFullName();
+        String andOthers = " and " + others + (others == 1 ? " other" : " others");
+        if (content.startsWith(name)) {
+            return name + andOthers + content.substring(name.length());
+        }
+        if (content.endsWith(name)) {
+            return content + andOthers;
+        }
+        return content;
     }
 
     public Page<NotificationDTO> getNotifications(User user, Pageable pageable) {
-        return notificationRepository.findByRecipientOrderByCreatedAtDesc(user, pageable)
+        return notificationRepository.findByRecipientOrderByLastActivityAtDescIdDesc(user, pageable)
                 .map(this::mapToDTO);
     }
 
-    public long getUnreadCount(User user) {
-        return notificationRepository.countByRecipientAndIsReadFalse(user);
+    /** Keyset variant of {@link #getNotifications}; skips the COUNT query a Page needs. */
+    public CursorPage<NotificationDTO> getNotificationsPage(User user, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Notification> rows = notificationRepository.findByRecipientPageAfter(
+                user.getId(), after.createdAt(), after.id(), PageRequest.of(0, limit + 1));
+        return CursorPage.of(rows, limit, n -> new PageCursor(n.getLastActivityAt(), n.getId()),
+                page -> page.stream().map(this::mapToDTO).toList());
+    }
+
+    public long getUnreadCount(UUID userId) {
+        return unreadCounter.get(userId);
     }
 
     @Transactional
     public void markAsRead(UUID notificationId) {
         notificationRepository.findById(notificationId).ifPresent(n -> {
-            n.setRead(true);
-            notificationRepository.save(n);
+            if (!n.isRead()) {
+                n.setRead(true);
+                notificationRepository.save(n);
+                unreadCounter.adjust(n.getRecipient().getId(), -1);
+            }
         });
     }
 
     @Transactional
     public void markRoomNotificationsRead(UUID roomId, User user) {
         int updated = notificationRepository.markRoomMessagesRead(user.getId(), roomId);
+        unreadCounter.adjust(user.getId(), -updated);
         log.info("Marked {} notifications as read for room {} / user {}", updated, roomId, user.getId());
     }
 
+    // Queued in the outbox within this transaction; delivered to Centrifugo after commit
     private void sendRealTimeNotification(Notification notification) {
-        String channel = "/topic/notifications/" + notification.getRecipient().getId();
-        log.info("Publishing real-time notification to Centrifugo channel {}", channel);
-        centrifugoPublisher.publish(channel, mapToDTO(notification));
+        UUID recipientId = notification.getRecipient().getId();
+        String channel = channelFor(recipientId);
+        log.info("Queueing real-time notification for Centrifugo channel {}", channel);
+        outboxDispatcher.enqueue(recipientId, channel, mapToDTO(notification));
+    }
+
+    private static String channelFor(UUID recipientId) {
+        return "/topic/notifications/" + recipientId;
     }
 
     private NotificationDTO mapToDTO(Notification n) {
@@ -86,6 +339,8 @@ public class NotificationService {
                 .relatedId(n.getRelatedId())
                 .isRead(n.isRead())
                 .createdAt(n.getCreatedAt())
+                .actorCount(n.getActorCount())
+                .lastActivityAt(n.getLastActivityAt())
                 .build();
     }
 }
@@ -0,0 +1,114 @@
+package com.plantsocial.backend.notification;
+
+import com.plantsocial.backend.util.AfterCommit;
+import com.plantsocial.backend.util.LocalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification counter behind the badge endpoint.
+ *
+ * The count lives in {@code users.unread_notification_count}, adjusted in the same
+ * transaction as the notification change, and is fronted by a bounded in-memory cache
+ * that is bumped after commit. Reading the badge is therefore a cache hit or a primary
+ * key lookup on users, never a COUNT over notifications. A periodic reconciliation
+ * recounts from the notifications table to repair any drift.
+ */
+@Slf4j
+@Component
+public class UnreadNotificationCounter {
+
+    private static final String ADJUST_SQL =
+            "UPDATE users SET unread_notification_count = GREATEST(unread_notification_count + ?, 0) WHERE id = ?";
+
+    private static final String READ_SQL = "SELECT unread_notification_count FROM users WHERE id = ?";
+
+    private static final String RECONCILE_SQL = """
+            UPDATE users u
+            SET unread_notification_count = s.unread
+            FROM (
+                SELECT u2.id, COUNT(n.id) AS unread
+                FROM users u2
+                LEFT JOIN notifications n ON n.recipient_id = u2.id AND n.is_read = false
+                GROUP BY u2.id
+            ) s
+            WHERE u.id = s.id AND u.unread_notification_count <> s.unread
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalCache<UUID, AtomicLong> cache;
+
+    public UnreadNotificationCounter(JdbcTemplate jdbcTemplate,
+            @Value("${notifications.unread-cache.max-users:50000}") int maxUsers,
+            @Value("${notifications.unread-cache.ttl:PT10M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new LocalCache<>(maxUsers, ttl);
+    }
+
+    public long get(UUID userId) {
+        AtomicLong count = cache.get(userId, id -> {
+            List<Long> rows = jdbcTemplate.queryForList(READ_SQL, Long.class, id);
+            return new AtomicLong(rows.isEmpty() ? 0 : rows.get(0));
+        });
+        return Math.max(0, count.get());
+    }
+
+    /** Adjusts the stored count in the current transaction; the cache follows after commit. */
+    public void adjust(UUID userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        jdbcTemplate.update(ADJUST_SQL, delta, userId);
+        AfterCommit.run(() -> bump(userId, delta));
+    }
+
+    /** {@link #adjust} for many users at once, as one JDBC batch. */
+    public void adjustAll(Collection<UUID> userIds, long delta) {
+        if (delta == 0 || userIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = userIds.stream().map(id -> new Object[] { delta, id }).toList();
+        jdbcTemplate.batchUpdate(ADJUST_SQL, rows);
+        AfterCommit.run(() -> userIds.forEach(userId -> bump(userId, delta)));
+    }
+
+    // With no cached count, a get() may be loading one read before this commit; the
+    // invalidation makes LocalCache drop that load instead of caching the old value
+    private void bump(UUID userId, long delta) {
+        AtomicLong cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            cached.updateAndGet(c -> Math.max(0, c + delta));
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${notifications.unread-cache.reconcile-cron:0 30 * * * *}")
+    public synchronized void reconcile() {
+        try {
+            int fixed = jdbcTemplate.update(RECONCILE_SQL);
+            if (fixed > 0) {
+                log.info("Unread notification reconciliation corrected {} users", fixed);
+                cache.invalidateAll();
+            }
+        } catch (Exception e) {
+            log.error("Unread notification reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -27,4 +27,6 @@ public class NotificationDTO {
     @JsonProperty("isRead")
     private boolean isRead;
     private LocalDateTime createdAt;
+    private int actorCount;
+    private LocalDateTime lastActivityAt;
 }
@@ -42,6 +42,26 @@ public class Notification {
 
     private boolean isRead;
 
+    // Coalescing: repeated events with the same (recipient, type, relatedId) merge into
+    // one unread row. sender is the latest actor; actorCount is the size of the row's
+    // notification_actors set; recentActorIds holds the most recent distinct actors,
+    // newest first, comma-separated.
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    @Builder.Default
+    private int actorCount = 1;
+
+    // At most one open row per (recipient, type, relatedId) while unread (uk_notifications_open);
+    // cleared once the row falls out of the coalescing window and a newer row takes over
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    @Builder.Default
+    private boolean mergeOpen = true;
+
+    @Column(columnDefinition = "TEXT")
+    private String recentActorIds;
+
+    // Time of the latest merged event; notifications are listed by this
+    private LocalDateTime lastActivityAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,71 @@
+package com.plantsocial.backend.notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A real-time push waiting to be delivered, written in the same transaction as the
+ * notification itself. The identity id gives the per-recipient delivery order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "next_attempt_at, id"),
+        @Index(name = "idx_notification_outbox_recipient", columnList = "recipient_id, id"),
+        @Index(name = "idx_notification_outbox_dedup", columnList = "dedup_key")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private UUID recipientId;
+
+    @Column(nullable = false)
+    private String channel;
+
+    // Serialized JSON body published as the Centrifugo "data" field
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // Group fan-out: rows written together for many recipients share a key, and those at
+    // the head of their recipient's queue are delivered with one Centrifugo batch request
+    @Column(name = "batch_key")
+    private String batchKey;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Debounced pushes for the same notification share a key; a pending row is
+    // refreshed with the latest payload instead of queueing another push
+    @Column(name = "dedup_key")
+    private String dedupKey;
+
+    // Set and compared with the database clock only (default now(), native updates),
+    // so app/DB clock skew cannot delay or advance delivery
+    @Column(name = "next_attempt_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp default now()")
+    private LocalDateTime nextAttemptAt;
+
+    // Lease held by the dispatcher that claimed the row; expired leases are reclaimed
+    @Column(name = "locked_until", insertable = false, updatable = false)
+    private LocalDateTime lockedUntil;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
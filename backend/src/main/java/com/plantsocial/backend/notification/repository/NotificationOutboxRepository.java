@@ -0,0 +1,69 @@
+package com.plantsocial.backend.notification.repository;
+
+import com.plantsocial.backend.notification.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Due, unleased rows in id order, locked so concurrent dispatchers skip them.
+     * A row is held back while an earlier row for the same recipient is waiting for a
+     * retry or leased elsewhere, which keeps delivery in order per recipient.
+     */
+    @Query(value = """
+            SELECT o.* FROM notification_outbox o
+            WHERE o.next_attempt_at <= now()
+              AND (o.locked_until IS NULL OR o.locked_until < now())
+              AND NOT EXISTS (
+                  SELECT 1 FROM notification_outbox e
+                  WHERE e.recipient_id = o.recipient_id AND e.id < o.id
+                    AND (e.next_attempt_at > now() OR e.locked_until >= now()))
+            ORDER BY o.id
+            LIMIT :limit
+            FOR UPDATE OF o SKIP LOCKED
+            """, nativeQuery = true)
+    List<NotificationOutbox> findClaimable(@Param("limit") int limit);
+
+    /** Inserts a push that becomes due after {@code delaySeconds} (database clock). */
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_outbox (recipient_id, channel, payload, attempts, next_attempt_at, dedup_key, created_at)
+            VALUES (:recipientId, :channel, :payload, 0, now() + make_interval(secs => :delaySeconds), :dedupKey, now())
+            """, nativeQuery = true)
+    int insertDelayed(@Param("recipientId") UUID recipientId, @Param("channel") String channel,
+            @Param("payload") String payload, @Param("delaySeconds") double delaySeconds,
+            @Param("dedupKey") String dedupKey);
+
+    /** Replaces the payload of a not-yet-due, unclaimed push with the same key. */
+    @Modifying
+    @Query(value = """
+            UPDATE notification_outbox SET payload = :payload
+            WHERE dedup_key = :dedupKey AND next_attempt_at > now() AND locked_until IS NULL
+            """, nativeQuery = true)
+    int refreshPending(@Param("dedupKey") String dedupKey, @Param("payload") String payload);
+
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET locked_until = now() + make_interval(secs => :seconds) WHERE id IN (:ids)",
+            nativeQuery = true)
+    int lease(@Param("ids") Collection<Long> ids, @Param("seconds") int seconds);
+
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET locked_until = NULL WHERE id IN (:ids)", nativeQuery = true)
+    int release(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = """
+            UPDATE notification_outbox
+            SET attempts = attempts + 1, locked_until = NULL,
+                next_attempt_at = now() + make_interval(secs => :delaySeconds)
+            WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("delaySeconds") double delaySeconds);
+}
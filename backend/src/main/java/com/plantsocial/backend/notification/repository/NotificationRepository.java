@@ -1,19 +1,58 @@
 package com.plantsocial.backend.notification.repository;
 
 import com.plantsocial.backend.notification.model.Notification;
+import com.plantsocial.backend.notification.model.NotificationType;
+import jakarta.persistence.LockModeType;
 import com.plantsocial.backend.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface NotificationRepository extends JpaRepository<Notification, UUID> {
-    Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
+    Page<Notification> findByRecipientOrderByLastActivityAtDescIdDesc(User recipient, Pageable pageable);
+
+    /**
+     * The open rows new events would merge into, one per recipient at most, locked so
+     * concurrent merges serialize.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id IN :recipientIds AND n.type = :type " +
+           "AND n.relatedId = :relatedId AND n.isRead = false AND n.mergeOpen = true " +
+           "AND n.lastActivityAt >= :since ORDER BY n.lastActivityAt DESC")
+    List<Notification> findOpenForMergeIn(@Param("recipientIds") Collection<UUID> recipientIds,
+                                          @Param("type") NotificationType type,
+                                          @Param("relatedId") UUID relatedId,
+                                          @Param("since") LocalDateTime since);
+
+    /**
+     * Closes open rows that fell out of the coalescing window, so the row a new event
+     * inserts can take their place under uk_notifications_open.
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.mergeOpen = false WHERE n.recipient.id IN :recipientIds " +
+           "AND n.type = :type AND n.relatedId = :relatedId AND n.isRead = false AND n.mergeOpen = true " +
+           "AND n.lastActivityAt < :since")
+    int closeStaleOpen(@Param("recipientIds") Collection<UUID> recipientIds,
+                       @Param("type") NotificationType type,
+                       @Param("relatedId") UUID relatedId,
+                       @Param("since") LocalDateTime since);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId " +
+           "AND (n.lastActivityAt < :lastActivityAt OR (n.lastActivityAt = :lastActivityAt AND n.id < :id)) " +
+           "ORDER BY n.lastActivityAt DESC, n.id DESC")
+    List<Notification> findByRecipientPageAfter(@Param("recipientId") UUID recipientId,
+                                                @Param("lastActivityAt") LocalDateTime lastActivityAt,
+                                                @Param("id") UUID id, Pageable pageable);
 
     long countByRecipientAndIsReadFalse(User recipient);
 
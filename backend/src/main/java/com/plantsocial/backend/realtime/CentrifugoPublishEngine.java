@@ -0,0 +1,289 @@
+package com.plantsocial.backend.realtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous, batching client for the Centrifugo HTTP API.
+ *
+ * Producers only enqueue into a bounded queue; one sender thread drains it, lingers a
+ * few milliseconds to collect more, and sends everything as a single {@code /batch}
+ * request (adjacent events carrying the same data object become one {@code broadcast}
+ * command). Commands in a batch are applied in order and batches are sent one at a
+ * time, with failed batches retried before the next one, so per-channel order holds.
+ *
+ * When the queue is full the {@link Overflow} policy decides: wait briefly, then shed
+ * the new event ({@code BLOCK}), shed it at once ({@code DROP_NEWEST}), or make room by
+ * shedding the oldest queued event ({@code DROP_OLDEST}). All requests go through one
+ * pooled, keep-alive JDK HttpClient that prefers HTTP/2.
+ */
+@Slf4j
+public final class CentrifugoPublishEngine implements AutoCloseable {
+
+    public enum Overflow { BLOCK, DROP_NEWEST, DROP_OLDEST }
+
+    public record Settings(int queueCapacity, int maxBatch, long lingerMs, Overflow overflow,
+            long blockTimeoutMs, int maxRetries, long baseBackoffMs, long maxBackoffMs) {
+    }
+
+    public record Stats(long published, long dropped, long failed, int queued) {
+    }
+
+    private record Event(List<String> channels, Object data) {
+    }
+
+    private final RestClient restClient;
+    private final String apiKey;
+    private final Settings settings;
+    private final BlockingQueue<Event> queue;
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public CentrifugoPublishEngine(String name, String apiUrl, String apiKey, Settings settings) {
+        this.apiKey = apiKey;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        this.restClient = RestClient.builder()
+                .baseUrl(apiUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+
+        this.sender = Thread.ofPlatform().name(name + "-sender").daemon().start(this::run);
+    }
+
+    /** Queues a publish; returns false if it was shed because the queue is full. */
+    public boolean submit(String channel, Object data) {
+        return enqueue(new Event(List.of(channel), data));
+    }
+
+    /** Synchronous publish for callers that need the outcome (e.g. to retry themselves). */
+    public boolean publishNow(String channel, Object data) {
+        try {
+            post("/publish", Map.of("channel", channel, "data", data));
+            return true;
+        } catch (Exception e) {
+            log.warn("Centrifugo publish failed for channel {}: {}", channel, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Synchronous batch publish: different data to many channels in one request. Returns
+     * the indexes of the pushes that were not delivered: all of them if the request
+     * failed, otherwise those whose command Centrifugo rejected.
+     */
+    public BitSet publishBatchNow(List<? extends Map.Entry<String, ?>> pushes) {
+        if (pushes.isEmpty()) {
+            return new BitSet();
+        }
+        List<Event> events = new ArrayList<>(pushes.size());
+        pushes.forEach(p -> events.add(new Event(List.of(p.getKey()), p.getValue())));
+        try {
+            return sendBatch(events);
+        } catch (Exception e) {
+            log.warn("Centrifugo batch publish of {} messages failed: {}", pushes.size(), e.getMessage());
+            BitSet undelivered = new BitSet(pushes.size());
+            undelivered.set(0, pushes.size());
+            return undelivered;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(published.sum(), dropped.sum(), failed.sum(), queue.size());
+    }
+
+    private boolean enqueue(Event event) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        boolean accepted = switch (settings.overflow()) {
+            case DROP_NEWEST -> queue.offer(event);
+            case BLOCK -> offerWithin(event, settings.blockTimeoutMs());
+            case DROP_OLDEST -> {
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                yield true;
+            }
+        };
+        if (!accepted) {
+            dropped.increment();
+            log.warn("Centrifugo publish queue full, shed event for {}", event.channels());
+        }
+        return accepted;
+    }
+
+    private boolean offerWithin(Event event, long timeoutMs) {
+        try {
+            return queue.offer(event, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(settings.maxBatch());
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Lingers up to lingerMs so a burst leaves as one request rather than many
+    private void collect(List<Event> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.lingerMs());
+        while (batch.size() < settings.maxBatch()) {
+            queue.drainTo(batch, settings.maxBatch() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= settings.maxBatch() || remaining <= 0) {
+                return;
+            }
+            Event next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // Retries in place so nothing queued behind a failed batch can overtake it
+    private void deliver(List<Event> batch) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // A rejected command would be rejected again, so only transport failures retry
+                int rejected = sendBatch(batch).cardinality();
+                published.add(batch.size() - rejected);
+                failed.add(rejected);
+                return;
+            } catch (Exception e) {
+                if (attempt >= settings.maxRetries() || !running) {
+                    failed.add(batch.size());
+                    log.error("Dropping {} Centrifugo events after {} attempts: {}",
+                            batch.size(), attempt + 1, e.getMessage());
+                    return;
+                }
+                long backoff = Math.min(settings.maxBackoffMs(), settings.baseBackoffMs() << Math.min(attempt, 20));
+                // Jitter in [backoff/2, backoff]
+                Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+            }
+        }
+    }
+
+    // Returns the indexes of the events whose command (or broadcast channel) was rejected
+    private BitSet sendBatch(List<Event> events) {
+        List<Map<String, Object>> commands = new ArrayList<>(events.size());
+        List<Integer> firstEvent = new ArrayList<>(events.size());
+        int i = 0;
+        while (i < events.size()) {
+            firstEvent.add(i);
+            Event event = events.get(i);
+            List<String> channels = new ArrayList<>(event.channels());
+            int j = i + 1;
+            while (j < events.size() && events.get(j).data() == event.data()) {
+                channels.addAll(events.get(j).channels());
+                j++;
+            }
+            commands.add(channels.size() == 1
+                    ? Map.of("publish", Map.of("channel", channels.get(0), "data", event.data()))
+                    : Map.of("broadcast", Map.of("channels", channels, "data", event.data())));
+            i = j;
+        }
+
+        JsonNode reply = post("/batch", Map.of("commands", commands));
+        BitSet rejected = new BitSet();
+        JsonNode replies = reply != null ? reply.path("replies") : null;
+        if (replies == null) {
+            return rejected;
+        }
+        for (int c = 0; c < commands.size(); c++) {
+            int from = firstEvent.get(c);
+            int to = c + 1 < commands.size() ? firstEvent.get(c + 1) : events.size();
+            JsonNode r = replies.path(c);
+            if (r.has("error")) {
+                log.warn("Centrifugo rejected a batched command: {}", r.get("error"));
+                rejected.set(from, to);
+                continue;
+            }
+            // A broadcast replies per channel, in the order its events' channels were listed
+            JsonNode responses = r.path("broadcast").path("responses");
+            int k = 0;
+            for (int e = from; e < to; e++) {
+                for (int n = events.get(e).channels().size(); n > 0; n--, k++) {
+                    if (responses.path(k).has("error")) {
+                        log.warn("Centrifugo rejected a broadcast channel: {}", responses.path(k).get("error"));
+                        rejected.set(e);
+                    }
+                }
+            }
+        }
+        return rejected;
+    }
+
+    private JsonNode post(String path, Object body) {
+        return restClient.post()
+                .uri(path)
+                .header("Authorization", "apikey " + apiKey)
+                .body(body)
+                .retrieve()
+                .body(JsonNode.class);
+    }
+
+    /** Stops accepting events and gives the sender a moment to flush what is queued. */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Discarding {} unsent Centrifugo events on shutdown", queue.size());
+        }
+    }
+}
@@ -1,41 +1,69 @@
 package com.plantsocial.backend.realtime;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Centrifugo publishing for the backend. {@link #publish} is fire-and-forget through the
+ * batching {@link CentrifugoPublishEngine}, so no caller thread waits on HTTP; the
+ * {@code try*} variants are synchronous for callers that track delivery themselves
+ * (the notification outbox).
+ */
 @Slf4j
 @Service
 public class CentrifugoPublisherService {
 
-    private final RestClient restClient;
-    private final String apiKey;
+    private final CentrifugoPublishEngine engine;
 
     public CentrifugoPublisherService(
             @Value("${centrifugo.api-url}") String apiUrl,
-            @Value("${centrifugo.api-key}") String apiKey) {
-        this.apiKey = apiKey;
-        this.restClient = RestClient.builder()
-                .baseUrl(apiUrl)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
+            @Value("${centrifugo.api-key}") String apiKey,
+            @Value("${centrifugo.publisher.queue-capacity:10000}") int queueCapacity,
+            @Value("${centrifugo.publisher.max-batch:100}") int maxBatch,
+            @Value("${centrifugo.publisher.linger-ms:5}") long lingerMs,
+            @Value("${centrifugo.publisher.overflow:BLOCK}") CentrifugoPublishEngine.Overflow overflow,
+            @Value("${centrifugo.publisher.block-timeout-ms:50}") long blockTimeoutMs,
+            @Value("${centrifugo.publisher.max-retries:3}") int maxRetries,
+            @Value("${centrifugo.publisher.base-backoff-ms:100}") long baseBackoffMs,
+            @Value("${centrifugo.publisher.max-backoff-ms:2000}") long maxBackoffMs) {
+        this.engine = new CentrifugoPublishEngine("centrifugo", apiUrl, apiKey,
+                new CentrifugoPublishEngine.Settings(queueCapacity, maxBatch, lingerMs, overflow,
+                        blockTimeoutMs, maxRetries, baseBackoffMs, maxBackoffMs));
     }
 
     public void publish(String channel, Object data) {
-        try {
-            restClient.post()
-                    .uri("/publish")
-                    .header("Authorization", "apikey " + apiKey)
-                    .body(Map.of("channel", channel, "data", data))
-                    .retrieve()
-                    .toBodilessEntity();
-        } catch (Exception e) {
-            log.warn("Centrifugo publish failed for channel {}: {}", channel, e.getMessage());
-        }
+        engine.submit(channel, data);
+    }
+
+    /** Publishes and reports whether Centrifugo accepted the message, for callers that retry. */
+    public boolean tryPublish(String channel, Object data) {
+        return engine.publishNow(channel, data);
+    }
+
+    /**
+     * Publishes different data to many channels in one HTTP request (Centrifugo batch API).
+     * Returns the indexes of the pushes that were not delivered, whether because the
+     * request failed or because Centrifugo rejected their command.
+     */
+    public BitSet tryPublishBatch(List<Map.Entry<String, ?>> pushes) {
+        return engine.publishBatchNow(pushes);
+    }
+
+    public CentrifugoPublishEngine.Stats stats() {
+        return engine.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        CentrifugoPublishEngine.Stats stats = engine.stats();
+        log.info("Centrifugo publisher stopping: {} published, {} dropped, {} failed, {} queued",
+                stats.published(), stats.dropped(), stats.failed(), stats.queued());
+        engine.close();
     }
 }
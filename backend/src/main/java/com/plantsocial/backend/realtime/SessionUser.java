@@ -0,0 +1,43 @@
+package com.plantsocial.backend.realtime;
+
+import com.plantsocial.backend.user.User;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot of the authenticated user, resolved once at STOMP CONNECT and stored in the
+ * WebSocket session attributes, so per-frame handlers never look the user up again.
+ */
+public record SessionUser(UUID id, String handle, String fullName, String profilePictureUrl) {
+
+    public static final String ATTRIBUTE = "plantsocial.sessionUser";
+
+    public static SessionUser of(User user) {
+        return new SessionUser(user.getId(), user.getHandle(), user.getFullName(), user.getProfilePictureUrl());
+    }
+
+    /** The snapshot attached to the session that sent {@code message}, or null. */
+    public static SessionUser from(Message<?> message) {
+        return fromAttributes(SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders()));
+    }
+
+    public static SessionUser fromAttributes(Map<String, Object> sessionAttributes) {
+        return sessionAttributes != null && sessionAttributes.get(ATTRIBUTE) instanceof SessionUser user ? user : null;
+    }
+
+    /**
+     * Detached User carrying only the snapshot fields. Enough to reference the user from new
+     * entities (by id) and to render names and avatars; not a managed entity.
+     */
+    public User toUserReference() {
+        return User.builder()
+                .id(id)
+                .username(handle)
+                .fullName(fullName)
+                .profilePictureUrl(profilePictureUrl)
+                .build();
+    }
+}
@@ -22,7 +22,7 @@ public class ReportController {
 
     @PostMapping
     public ResponseEntity<Void> createReport(@RequestBody ReportDTO dto) {
-        String email = securityUtils.getCurrentUser().getEmail();
+        String email = securityUtils.getCurrentUserSnapshot().email();
         log.info("Report request received: postId={}, reason={}, blockUser={}, user={}",
                 dto.postId(), dto.reason(), dto.blockUser(), email);
         try {
@@ -4,11 +4,24 @@ import com.plantsocial.backend.model.Comment;
 import com.plantsocial.backend.model.CommentLike;
 import com.plantsocial.backend.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface CommentLikeRepository extends JpaRepository<CommentLike, UUID> {
     boolean existsByCommentAndUser(Comment comment, User user);
     void deleteByCommentAndUser(Comment comment, User user);
     long countByComment(Comment comment);
+
+    // Batch variants: one round trip per list of comments instead of one per comment
+
+    @Query("SELECT l.comment.id, COUNT(l) FROM CommentLike l WHERE l.comment.id IN :commentIds GROUP BY l.comment.id")
+    List<Object[]> countByCommentIds(@Param("commentIds") Collection<UUID> commentIds);
+
+    @Query("SELECT l.comment.id FROM CommentLike l WHERE l.user.id = :userId AND l.comment.id IN :commentIds")
+    Set<UUID> findLikedCommentIds(@Param("userId") UUID userId, @Param("commentIds") Collection<UUID> commentIds);
 }
@@ -2,8 +2,13 @@ package com.plantsocial.backend.repository;
 
 import com.plantsocial.backend.model.Comment;
 import com.plantsocial.backend.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +26,38 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     // Count all comments on a post (for post-level comment count)
     long countByPost(Post post);
 
+    // First page of a post's top-level comments, oldest first, with authors (idx_comments_post_roots)
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRootPage(@Param("postId") UUID postId, Pageable pageable);
+
+    // Top-level comments after a keyset position, oldest first, with authors
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRootPageAfter(@Param("postId") UUID postId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id, Pageable pageable);
+
+    long countByPostIdAndParentCommentIsNull(UUID postId);
+
+    // (id, parent id, parent's total replies) for the oldest :perParent replies of each parent (idx_comments_parent)
+    @Query(value = "SELECT r.id, r.parent_id, r.total FROM (" +
+            "SELECT c.id, c.parent_id, c.created_at, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.created_at, c.id) AS rn, " +
+            "COUNT(*) OVER (PARTITION BY c.parent_id) AS total " +
+            "FROM comments c WHERE c.parent_id IN (:parentIds)) r " +
+            "WHERE r.rn <= :perParent ORDER BY r.created_at, r.id", nativeQuery = true)
+    List<Object[]> findFirstReplyIdsByParentIds(@Param("parentIds") Collection<UUID> parentIds,
+            @Param("perParent") int perParent);
+
+    // Comments by id, oldest first, with authors
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findWithAuthorByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Reply counts for a batch of comments, grouped by parent
+    @Query("SELECT c.parentComment.id, COUNT(c) FROM Comment c WHERE c.parentComment.id IN :parentIds GROUP BY c.parentComment.id")
+    List<Object[]> countRepliesByParentIds(@Param("parentIds") Collection<UUID> parentIds);
+
     // Legacy query kept for compatibility
     List<Comment> findByPostOrderByCreatedAtAsc(Post post);
 
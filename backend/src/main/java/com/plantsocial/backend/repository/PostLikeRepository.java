@@ -4,15 +4,23 @@ import com.plantsocial.backend.model.Post;
 import com.plantsocial.backend.model.PostLike;
 import com.plantsocial.backend.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 
 public interface PostLikeRepository extends JpaRepository<PostLike, UUID> {
     boolean existsByPostAndUser(Post post, User user);
 
-    void deleteByPostAndUser(Post post, User user); // Note: Make sure to handle transaction for delete
+    long deleteByPostAndUser(Post post, User user); // Note: Make sure to handle transaction for delete
 
     long countByPost(Post post);
 
     void deleteAllByPost(Post post);
+
+    // Viewer flag for a whole page of posts (used by PostHydrationService)
+    @Query("SELECT l.post.id FROM PostLike l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    Set<UUID> findLikedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
 }
@@ -5,11 +5,13 @@ import com.plantsocial.backend.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -18,11 +20,8 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
         @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC")
         Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
-        @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC")
-        List<Post> findAllByAuthorIdIn(List<UUID> authorIds, Pageable pageable);
-
-        @Query("SELECT p FROM Post p WHERE p.author.id NOT IN :blockedIds")
-        Page<Post> findAllByAuthorIdNotIn(@Param("blockedIds") Set<UUID> blockedIds, Pageable pageable);
+        @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+        List<Post> findAllByAuthorIdIn(@Param("authorIds") Collection<UUID> authorIds, Pageable pageable);
 
         List<Post> findByAuthorIdOrderByCreatedAtDesc(UUID authorId);
 
@@ -30,34 +29,59 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
 
         Page<Post> findByPlantTagIgnoreCaseOrderByCreatedAtDesc(String plantTag, Pageable pageable);
 
-        @Query("SELECT p FROM Post p WHERE LOWER(p.plantTag) = LOWER(:plantTag) AND p.author.id NOT IN :blockedIds ORDER BY p.createdAt DESC")
-        Page<Post> findByPlantTagExcludingBlocked(@Param("plantTag") String plantTag,
-                        @Param("blockedIds") Set<UUID> blockedIds, Pageable pageable);
-
         List<Post> findAllByPlantId(UUID plantId);
 
-        @Query("SELECT p FROM Post p WHERE p.createdAt >= :startDate ORDER BY SIZE(p.likes) DESC")
-        org.springframework.data.domain.Page<Post> findTrendingPosts(
-                        @Param("startDate") java.time.LocalDateTime startDate, Pageable pageable);
-
-        @Query("SELECT p FROM Post p WHERE p.plantTag = :tag AND p.createdAt >= :startDate ORDER BY SIZE(p.likes) DESC")
-        org.springframework.data.domain.Page<Post> findTrendingPostsByTag(
-                        @Param("startDate") java.time.LocalDateTime startDate, @Param("tag") String tag,
-                        Pageable pageable);
+        @Query("SELECT p FROM Post p WHERE p.createdAt >= :since AND p.repostOf IS NULL " +
+                        "AND (p.likeCount > 0 OR p.commentCount > 0 OR p.repostCount > 0) " +
+                        "ORDER BY p.likeCount + p.commentCount + p.repostCount DESC")
+        List<Post> findMostEngagedSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+        /**
+         * The author's reposts of a root post, via uk_posts_user_root. At most one, except for
+         * duplicates created before that unique index existed.
+         */
+        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND p.rootPostId = :rootPostId ORDER BY p.createdAt")
+        List<Post> findAllByAuthorIdAndRootPostId(@Param("authorId") UUID authorId,
+                        @Param("rootPostId") UUID rootPostId);
+
+        /** Inserts a repost unless the author already has one of this root (uk_posts_user_root). */
+        @Modifying
+        @Query(value = """
+                        INSERT INTO posts (id, user_id, repost_of_id, root_post_id, created_at)
+                        VALUES (:id, :authorId, :rootPostId, :rootPostId, :createdAt)
+                        ON CONFLICT DO NOTHING
+                        """, nativeQuery = true)
+        int insertRepost(@Param("id") UUID id, @Param("authorId") UUID authorId,
+                        @Param("rootPostId") UUID rootPostId, @Param("createdAt") LocalDateTime createdAt);
 
-        Page<Post> findByContentContainingIgnoreCaseOrderByCreatedAtDesc(String content, Pageable pageable);
+        @Query("SELECT COUNT(p) FROM Post p WHERE p.repostOf.id = :repostOfId")
+        long countByRepostOfId(@Param("repostOfId") UUID repostOfId);
 
-        @Query("SELECT p FROM Post p WHERE LOWER(p.content) LIKE LOWER(CONCAT('%', :content, '%')) AND p.author.id NOT IN :blockedIds ORDER BY p.createdAt DESC")
-        Page<Post> findByContentExcludingBlocked(@Param("content") String content,
-                        @Param("blockedIds") Set<UUID> blockedIds, Pageable pageable);
+        @Query("SELECT p.rootPostId FROM Post p WHERE p.author.id = :authorId AND p.rootPostId IN :postIds")
+        Set<UUID> findRepostedPostIds(@Param("authorId") UUID authorId, @Param("postIds") Collection<UUID> postIds);
 
-        @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Post p WHERE p.author.id = :authorId AND p.repostOf.id = :repostOfId")
-        boolean existsByAuthorIdAndRepostOfId(@Param("authorId") UUID authorId, @Param("repostOfId") UUID repostOfId);
+        // ── Keyset pagination: rows strictly after the (createdAt, id) cursor, newest first ──
 
-        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND p.repostOf.id = :repostOfId")
-        Optional<Post> findByAuthorIdAndRepostOfId(@Param("authorId") UUID authorId,
-                        @Param("repostOfId") UUID repostOfId);
+        @Query("SELECT p FROM Post p WHERE (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Post> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                        Pageable pageable);
 
-        @Query("SELECT COUNT(p) FROM Post p WHERE p.repostOf.id = :repostOfId")
-        long countByRepostOfId(@Param("repostOfId") UUID repostOfId);
+        @Query("SELECT p FROM Post p WHERE LOWER(p.plantTag) = LOWER(:plantTag) " +
+                        "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Post> findByPlantTagPageAfter(@Param("plantTag") String plantTag,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId " +
+                        "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Post> findByAuthorPageAfter(@Param("authorId") UUID authorId,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+        @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds " +
+                        "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Post> findByAuthorIdInPageAfter(@Param("authorIds") Collection<UUID> authorIds,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
 }
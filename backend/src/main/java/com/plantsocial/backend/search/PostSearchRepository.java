@@ -0,0 +1,44 @@
+package com.plantsocial.backend.search;
+
+import com.plantsocial.backend.model.Post;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Full-text queries over posts.search_vector (a generated tsvector column with a GIN
+ * index, see schema.sql). {@code :tsquery} must already be a valid to_tsquery expression
+ * and {@code :blocked} a Postgres uuid array literal such as {@code {}} — keeping both as
+ * plain parameters means the statement text never changes with the block list size.
+ */
+public interface PostSearchRepository extends Repository<Post, UUID> {
+
+    @Query(value = """
+            SELECT p.* FROM posts p
+            WHERE p.search_vector @@ to_tsquery('simple', :tsquery)
+              AND NOT (p.user_id = ANY (CAST(:blocked AS uuid[])))
+            ORDER BY ts_rank_cd(p.search_vector, to_tsquery('simple', :tsquery)) DESC, p.created_at DESC, p.id DESC
+            """, countQuery = """
+            SELECT COUNT(*) FROM posts p
+            WHERE p.search_vector @@ to_tsquery('simple', :tsquery)
+              AND NOT (p.user_id = ANY (CAST(:blocked AS uuid[])))
+            """, nativeQuery = true)
+    Page<Post> searchRanked(@Param("tsquery") String tsquery, @Param("blocked") String blocked, Pageable pageable);
+
+    @Query(value = """
+            SELECT p.* FROM posts p
+            WHERE p.search_vector @@ to_tsquery('simple', :tsquery)
+              AND NOT (p.user_id = ANY (CAST(:blocked AS uuid[])))
+              AND (p.created_at < :createdAt OR (p.created_at = :createdAt AND p.id < :id))
+            ORDER BY p.created_at DESC, p.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Post> searchAfter(@Param("tsquery") String tsquery, @Param("blocked") String blocked,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, @Param("limit") int limit);
+}
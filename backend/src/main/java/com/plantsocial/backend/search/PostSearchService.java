@@ -0,0 +1,77 @@
+package com.plantsocial.backend.search;
+
+import com.plantsocial.backend.block.BlockSet;
+import com.plantsocial.backend.dto.PageCursor;
+import com.plantsocial.backend.model.Post;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Post search backed by the Postgres full-text index.
+ *
+ * Every word of the user's query must match (AND), and each word matches as a prefix,
+ * so "monst delic" finds "Monstera deliciosa". Blocked authors are excluded inside the
+ * index query rather than after it, so pages are always full.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostSearchService {
+
+    private static final int MAX_TERMS = 8;
+
+    private final PostSearchRepository postSearchRepository;
+
+    /** Best matches first (ts_rank_cd), newest first among equally ranked posts. */
+    public Page<Post> search(String query, BlockSet blocked, Pageable pageable) {
+        String tsquery = toTsQuery(query);
+        if (tsquery == null) {
+            return Page.empty(pageable);
+        }
+        // Ordering is fixed by the query; a client-supplied sort would not map onto native columns
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return postSearchRepository.searchRanked(tsquery, toArrayLiteral(blocked), unsorted);
+    }
+
+    /**
+     * Keyset variant. Cursor paging needs a stable sort key, so matches come back
+     * newest first rather than by rank.
+     */
+    public List<Post> searchAfter(String query, BlockSet blocked, PageCursor after, int limit) {
+        String tsquery = toTsQuery(query);
+        if (tsquery == null) {
+            return List.of();
+        }
+        return postSearchRepository.searchAfter(tsquery, toArrayLiteral(blocked),
+                after.createdAt(), after.id(), limit);
+    }
+
+    /**
+     * Turns free text into a prefix AND query ("monst:* & delic:*"). Only letters and
+     * digits survive, so user input can never produce a tsquery syntax error.
+     */
+    static String toTsQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        String terms = Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .map(t -> t + ":*")
+                .collect(Collectors.joining(" & "));
+        return terms.isEmpty() ? null : terms;
+    }
+
+    private static String toArrayLiteral(BlockSet blocked) {
+        return blocked.stream().map(UUID::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -1,11 +1,11 @@
 package com.plantsocial.backend.security;
 
 import com.plantsocial.backend.user.UserRepository;
+import com.plantsocial.backend.util.LocalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,18 +14,46 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Set;
+import java.time.Duration;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Provisions Keycloak users in the local users table on their first request.
+ *
+ * Users already known to exist are remembered in a bounded, expiring cache, so the
+ * hot path skips {@code existsById} while heap use stays flat no matter how many
+ * distinct users a long-running node sees. Cache hit rate and provisioning latency
+ * are available from {@link #stats()} and logged every {@code reportInterval}.
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class JwtUserSyncFilter extends OncePerRequestFilter {
 
+    // provisioned only counts rows this node inserted; conflicts are first requests that
+    // lost the insert to another request or node
+    public record Stats(LocalCache.Stats cache, long provisioned, long conflicts, double avgProvisionMs,
+            double maxProvisionMs) {
+    }
+
     private final UserRepository userRepository;
 
     // In-Memory Verification Cache to prevent DB checks on every request
-    private final Set<UUID> verifiedUsers = ConcurrentHashMap.newKeySet();
+    private final LocalCache<UUID, Boolean> verifiedUsers;
+
+    private final LongAdder provisioned = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder provisionNanos = new LongAdder();
+    private final AtomicLong maxProvisionNanos = new AtomicLong();
+    private final long reportIntervalNanos;
+    private final AtomicLong nextReportAt;
+
+    public JwtUserSyncFilter(UserRepository userRepository, int maxUsers, Duration ttl, Duration reportInterval) {
+        this.userRepository = userRepository;
+        this.verifiedUsers = new LocalCache<>(maxUsers, ttl);
+        this.reportIntervalNanos = reportInterval.toNanos();
+        this.nextReportAt = new AtomicLong(System.nanoTime() + reportIntervalNanos);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -42,15 +70,16 @@ public class JwtUserSyncFilter extends OncePerRequestFilter {
                     UUID userId = UUID.fromString(sub);
 
                     // Check cache first before hitting the DB
-                    if (!verifiedUsers.contains(userId)) {
+                    if (verifiedUsers.getIfPresent(userId) == null) {
                         if (!userRepository.existsById(userId)) {
                             log.info("New user detected from JWT. Provisioning user with ID: {}", userId);
                             syncNewUser(userId, jwt);
                         } else {
                             // User exists in DB but wasn't in cache, add to cache
-                            verifiedUsers.add(userId);
+                            verifiedUsers.put(userId, Boolean.TRUE);
                         }
                     }
+                    reportIfDue();
                 } catch (IllegalArgumentException e) {
                     log.warn("Invalid UUID format in JWT sub claim: {}", sub);
                 }
@@ -72,15 +101,18 @@ public class JwtUserSyncFilter extends OncePerRequestFilter {
         if (givenName == null) givenName = "Plant";
         if (familyName == null) familyName = "Lover";
 
+        long start = System.nanoTime();
         try {
             // Use native INSERT to bypass Spring Data's merge() path which breaks when
             // the entity has an explicitly set UUID but doesn't yet exist in the DB.
             // ON CONFLICT DO NOTHING handles any unique-constraint race (id, email, username).
             int inserted = userRepository.provisionFromJwt(userId, givenName + " " + familyName, email, username);
-            verifiedUsers.add(userId); // cache regardless — user is in DB whether we inserted or not
+            verifiedUsers.put(userId, Boolean.TRUE); // cache regardless — user is in DB whether we inserted or not
             if (inserted > 0) {
+                recordProvisioning(System.nanoTime() - start);
                 log.info("Provisioned new user: {} ({})", username, userId);
             } else {
+                conflicts.increment();
                 log.debug("User {} already exists, added to cache", userId);
             }
         } catch (Exception e) {
@@ -88,4 +120,31 @@ public class JwtUserSyncFilter extends OncePerRequestFilter {
             // Don't cache — next request will retry via existsById() path
         }
     }
+
+    public Stats stats() {
+        long count = provisioned.sum();
+        double avgMs = count == 0 ? 0.0 : provisionNanos.sum() / (double) count / 1_000_000.0;
+        return new Stats(verifiedUsers.stats(), count, conflicts.sum(), avgMs, maxProvisionNanos.get() / 1_000_000.0);
+    }
+
+    private void recordProvisioning(long nanos) {
+        provisioned.increment();
+        provisionNanos.add(nanos);
+        maxProvisionNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Piggybacks on request traffic, so an idle node logs nothing; one thread wins each interval
+    private void reportIfDue() {
+        long now = System.nanoTime();
+        long due = nextReportAt.get();
+        if (now - due < 0 || !nextReportAt.compareAndSet(due, now + reportIntervalNanos)) {
+            return;
+        }
+        Stats stats = stats();
+        log.info("Verified-user cache: {} entries, hit rate {}%, {} evicted; {} users provisioned ({} conflicts), "
+                + "avg {} ms, max {} ms",
+                stats.cache().size(), Math.round(stats.cache().hitRate() * 1000) / 10.0, stats.cache().evictions(),
+                stats.provisioned(), stats.conflicts(), Math.round(stats.avgProvisionMs() * 10) / 10.0,
+                Math.round(stats.maxProvisionMs() * 10) / 10.0);
+    }
 }
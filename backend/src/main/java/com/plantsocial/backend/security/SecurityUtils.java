@@ -1,36 +1,90 @@
 package com.plantsocial.backend.security;
 
+import com.plantsocial.backend.user.Role;
+import com.plantsocial.backend.user.SubscriptionTier;
 import com.plantsocial.backend.user.User;
 import com.plantsocial.backend.user.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.plantsocial.backend.util.AfterCommit;
+import com.plantsocial.backend.util.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
 import java.util.UUID;
 
+/**
+ * Resolves the caller from the Keycloak JWT.
+ *
+ * The managed {@link User} entity is memoized on the current request, so however many
+ * services ask for it, a request loads the caller at most once. Read-only lookups that
+ * only need identity and display fields can use {@link #getCurrentUserSnapshot()},
+ * which is served from a bounded, short-lived cache shared across requests; call
+ * {@link #evict} whenever a profile changes.
+ */
 @Component
-@RequiredArgsConstructor
 public class SecurityUtils {
 
+    private static final String REQUEST_ATTRIBUTE = SecurityUtils.class.getName() + ".currentUser";
+
+    /** Detached copy of the fields most requests need about the caller. */
+    public record UserSnapshot(UUID id, String email, String handle, String fullName,
+            String profilePictureUrl, Role role, SubscriptionTier subscriptionTier) {
+
+        static UserSnapshot of(User user) {
+            return new UserSnapshot(user.getId(), user.getEmail(), user.getHandle(), user.getFullName(),
+                    user.getProfilePictureUrl(), user.getRole(), user.getSubscriptionTier());
+        }
+    }
+
     private final UserRepository userRepository;
+    private final LocalCache<UUID, UserSnapshot> snapshots;
+
+    public SecurityUtils(UserRepository userRepository,
+            @Value("${security.current-user-cache.max-users:50000}") int maxUsers,
+            @Value("${security.current-user-cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.snapshots = new LocalCache<>(maxUsers, ttl);
+    }
 
     /**
-     * Resolves the currently authenticated user from the Keycloak JWT sub claim.
+     * The JWT sub claim of the caller; never touches the database.
      * Throws if no valid JWT authentication is present.
      */
-    public User getCurrentUser() {
+    public UUID getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth instanceof JwtAuthenticationToken jwtAuth) {
-            UUID userId = UUID.fromString(jwtAuth.getToken().getSubject());
-            return userRepository.findById(userId)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userId));
+            return UUID.fromString(jwtAuth.getToken().getSubject());
         }
         throw new UsernameNotFoundException("No JWT authentication found in security context");
     }
 
+    /**
+     * Resolves the currently authenticated user from the Keycloak JWT sub claim.
+     * Throws if no valid JWT authentication is present.
+     */
+    public User getCurrentUser() {
+        UUID userId = getCurrentUserId();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User memo
+                && userId.equals(memo.getId())) {
+            return memo;
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userId));
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        snapshots.put(userId, UserSnapshot.of(user));
+        return user;
+    }
+
     /**
      * Same as getCurrentUser() but returns null for anonymous / unauthenticated requests.
      */
@@ -46,4 +100,19 @@ public class SecurityUtils {
             return null;
         }
     }
+
+    /**
+     * Identity and display fields of the caller, cached across requests for up to
+     * {@code security.current-user-cache.ttl}.
+     */
+    public UserSnapshot getCurrentUserSnapshot() {
+        UUID userId = getCurrentUserId();
+        UserSnapshot cached = snapshots.getIfPresent(userId);
+        return cached != null ? cached : UserSnapshot.of(getCurrentUser());
+    }
+
+    /** Drops the cached snapshot once the current transaction (if any) commits. */
+    public void evict(UUID userId) {
+        AfterCommit.run(() -> snapshots.invalidate(userId));
+    }
 }
@@ -2,6 +2,9 @@ package com.plantsocial.backend.service;
 
 import com.plantsocial.backend.dto.CommentRequest;
 import com.plantsocial.backend.dto.CommentResponse;
+import com.plantsocial.backend.dto.CommentThreadResponse;
+import com.plantsocial.backend.dto.CommentTreeNode;
+import com.plantsocial.backend.dto.PageCursor;
 import com.plantsocial.backend.model.Comment;
 import com.plantsocial.backend.model.CommentLike;
 import com.plantsocial.backend.model.CommentReport;
@@ -16,10 +19,15 @@ import com.plantsocial.backend.security.SecurityUtils;
 import com.plantsocial.backend.user.User;
 import com.plantsocial.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,6 +35,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CommentService {
 
+    private static final int MAX_THREAD_PAGE_SIZE = 100;
+    private static final int MAX_THREAD_DEPTH = 10;
+    private static final int THREAD_REPLIES_PER_COMMENT = 20;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
@@ -34,21 +46,107 @@ public class CommentService {
     private final SecurityUtils securityUtils;
     private final CommentLikeRepository commentLikeRepository;
     private final CommentReportRepository commentReportRepository;
+    private final PostCounterAggregator postCounterAggregator;
+    private final TrendEngine trendEngine;
+    private final FeedPageCache feedPageCache;
 
     public List<CommentResponse> getTopLevelComments(UUID postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         User viewer = securityUtils.getCurrentUserOrNull();
-        return commentRepository.findByPostAndParentCommentIsNullOrderByCreatedAtAsc(post)
-                .stream().map(c -> mapToResponse(c, viewer)).collect(Collectors.toList());
+        return mapToResponses(commentRepository.findByPostAndParentCommentIsNullOrderByCreatedAtAsc(post), viewer);
     }
 
     public List<CommentResponse> getReplies(UUID commentId) {
         Comment parent = commentRepository.findById(commentId)
                 .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
         User viewer = securityUtils.getCurrentUserOrNull();
-        return commentRepository.findByParentCommentOrderByCreatedAtAsc(parent)
-                .stream().map(c -> mapToResponse(c, viewer)).collect(Collectors.toList());
+        return mapToResponses(commentRepository.findByParentCommentOrderByCreatedAtAsc(parent), viewer);
+    }
+
+    /**
+     * A page of top-level comments with their replies expanded up to {@code depth}
+     * levels. Roots are paged by keyset on (createdAt, id), falling back to an offset
+     * {@code page} when no cursor is given; replies are then loaded one level at a time
+     * for the comments on this page only, at most the oldest
+     * {@value #THREAD_REPLIES_PER_COMMENT} per comment. Like counts and the viewer's likes are loaded
+     * for all returned comments at once, so a page costs a fixed number of queries
+     * bounded by {@code depth}, however large the thread is.
+     */
+    @Transactional(readOnly = true)
+    public CommentThreadResponse getThread(UUID postId, String cursor, int page, int size, int depth) {
+        if (!postRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        User viewer = securityUtils.getCurrentUserOrNull();
+        int pageSize = Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE));
+        int maxDepth = Math.max(1, Math.min(depth, MAX_THREAD_DEPTH));
+
+        Long totalTopLevel = null;
+        List<Comment> pageRoots;
+        boolean hasMore;
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor);
+            pageRoots = commentRepository.findRootPageAfter(postId, after.createdAt(), after.id(),
+                    PageRequest.of(0, pageSize + 1));
+            hasMore = pageRoots.size() > pageSize;
+            if (hasMore) {
+                pageRoots = pageRoots.subList(0, pageSize);
+            }
+        } else {
+            int offset = Math.max(page, 0);
+            totalTopLevel = commentRepository.countByPostIdAndParentCommentIsNull(postId);
+            pageRoots = commentRepository.findRootPage(postId, PageRequest.of(offset, pageSize));
+            hasMore = (long) offset * pageSize + pageRoots.size() < totalTopLevel;
+        }
+
+        // Every comment that will be rendered, so likes are loaded for exactly those
+        List<UUID> visibleIds = new ArrayList<>();
+        Map<UUID, List<Comment>> children = new HashMap<>();
+        Map<UUID, Long> replyCounts = new HashMap<>();
+        List<Comment> level = pageRoots;
+        for (int d = 1; !level.isEmpty(); d++) {
+            List<UUID> levelIds = level.stream().map(Comment::getId).toList();
+            visibleIds.addAll(levelIds);
+            if (d == maxDepth) {
+                // Comments at the deepest rendered level only need their reply count
+                replyCounts.putAll(toCountMap(commentRepository.countRepliesByParentIds(levelIds)));
+                break;
+            }
+            List<UUID> replyIds = new ArrayList<>();
+            for (Object[] row : commentRepository.findFirstReplyIdsByParentIds(levelIds, THREAD_REPLIES_PER_COMMENT)) {
+                replyIds.add((UUID) row[0]);
+                replyCounts.put((UUID) row[1], ((Number) row[2]).longValue());
+            }
+            level = replyIds.isEmpty() ? List.of() : commentRepository.findWithAuthorByIdIn(replyIds);
+            for (Comment reply : level) {
+                children.computeIfAbsent(reply.getParentComment().getId(), k -> new ArrayList<>()).add(reply);
+            }
+        }
+        Map<UUID, Long> likeCounts = visibleIds.isEmpty() ? Map.of()
+                : toCountMap(commentLikeRepository.countByCommentIds(visibleIds));
+        Set<UUID> liked = viewer != null && !visibleIds.isEmpty()
+                ? commentLikeRepository.findLikedCommentIds(viewer.getId(), visibleIds)
+                : Set.of();
+
+        List<CommentTreeNode> nodes = buildNodes(pageRoots, children, replyCounts, likeCounts, liked, 1, maxDepth);
+        String nextCursor = hasMore && !pageRoots.isEmpty()
+                ? new PageCursor(pageRoots.getLast().getCreatedAt(), pageRoots.getLast().getId()).encode()
+                : null;
+        return new CommentThreadResponse(nodes, Math.max(page, 0), pageSize, totalTopLevel, hasMore, nextCursor);
+    }
+
+    private List<CommentTreeNode> buildNodes(List<Comment> comments, Map<UUID, List<Comment>> children,
+            Map<UUID, Long> replyCounts, Map<UUID, Long> likeCounts, Set<UUID> liked, int level, int maxDepth) {
+        return comments.stream().map(c -> {
+            List<Comment> replies = children.getOrDefault(c.getId(), List.of());
+            long replyCount = replyCounts.getOrDefault(c.getId(), 0L);
+            CommentResponse response = toResponse(c, replyCount, likeCounts.getOrDefault(c.getId(), 0L),
+                    liked.contains(c.getId()));
+            return new CommentTreeNode(response, level < maxDepth
+                    ? buildNodes(replies, children, replyCounts, likeCounts, liked, level + 1, maxDepth)
+                    : List.of(), replyCount - replies.size());
+        }).toList();
     }
 
     @Transactional
@@ -64,6 +162,9 @@ public class CommentService {
                 .parentComment(null)
                 .build();
         Comment saved = commentRepository.save(comment);
+        postCounterAggregator.commentAdded(post.getId());
+        feedPageCache.postChanged(post.getId());
+        trendEngine.record(post, TrendEngine.Engagement.COMMENT);
 
         notificationService.createNotification(
                 post.getAuthor(),
@@ -88,6 +189,9 @@ public class CommentService {
                 .parentComment(parent)
                 .build();
         Comment saved = commentRepository.save(reply);
+        postCounterAggregator.commentAdded(parent.getPost().getId());
+        feedPageCache.postChanged(parent.getPost().getId());
+        trendEngine.record(parent.getPost(), TrendEngine.Engagement.COMMENT);
 
         notificationService.createNotification(
                 parent.getAuthor(),
@@ -143,9 +247,33 @@ public class CommentService {
     }
 
     private CommentResponse mapToResponse(Comment comment, User viewer) {
-        long replyCount = commentRepository.countByParentComment(comment);
-        long likeCount = commentLikeRepository.countByComment(comment);
-        boolean liked = viewer != null && commentLikeRepository.existsByCommentAndUser(comment, viewer);
+        return mapToResponses(List.of(comment), viewer).get(0);
+    }
+
+    // Reply counts, like counts and viewer likes for the whole list in three queries
+    private List<CommentResponse> mapToResponses(List<Comment> comments, User viewer) {
+        if (comments.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = comments.stream().map(Comment::getId).toList();
+        Map<UUID, Long> replyCounts = toCountMap(commentRepository.countRepliesByParentIds(ids));
+        Map<UUID, Long> likeCounts = toCountMap(commentLikeRepository.countByCommentIds(ids));
+        Set<UUID> liked = viewer != null ? commentLikeRepository.findLikedCommentIds(viewer.getId(), ids) : Set.of();
+        return comments.stream()
+                .map(c -> toResponse(c, replyCounts.getOrDefault(c.getId(), 0L),
+                        likeCounts.getOrDefault(c.getId(), 0L), liked.contains(c.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<UUID, Long> toCountMap(List<Object[]> rows) {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((UUID) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private CommentResponse toResponse(Comment comment, long replyCount, long likeCount, boolean liked) {
         return new CommentResponse(
                 comment.getId(),
                 comment.getContent(),
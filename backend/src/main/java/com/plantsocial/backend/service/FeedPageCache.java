@@ -0,0 +1,96 @@
+package com.plantsocial.backend.service;
+
+import com.plantsocial.backend.dto.CursorPage;
+import com.plantsocial.backend.dto.PostResponse;
+import com.plantsocial.backend.util.AfterCommit;
+import com.plantsocial.backend.util.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of viewer-independent public feed pages (PostResponses with all
+ * viewer flags false). Keyed by filter, query and position; callers overlay the
+ * viewer's own flags on top.
+ *
+ * Creating, editing or deleting a post clears everything (page boundaries shift);
+ * a like, comment or repost only drops the pages that contain that post. Counter
+ * columns are written behind by {@link PostCounterAggregator}, which drops the pages
+ * of the posts it flushed once their new counts are in the database.
+ */
+@Component
+public class FeedPageCache {
+
+    private record Key(String mode, String plant, String query, String position) {
+    }
+
+    private final LocalCache<Key, Object> pages;
+
+    public FeedPageCache(@Value("${feed.page-cache.max-pages:2000}") int maxPages,
+            @Value("${feed.page-cache.ttl:PT15S}") Duration ttl) {
+        this.pages = new LocalCache<>(maxPages, ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<PostResponse> page(String plant, String query, Pageable pageable,
+            Supplier<Page<PostResponse>> loader) {
+        Key key = new Key("page", normalize(plant), normalize(query),
+                pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort());
+        return (Page<PostResponse>) pages.get(key, k -> loader.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    public CursorPage<PostResponse> cursorPage(String plant, String query, String cursor, int size,
+            Supplier<CursorPage<PostResponse>> loader) {
+        Key key = new Key("cursor", normalize(plant), normalize(query), (cursor == null ? "" : cursor) + ":" + size);
+        return (CursorPage<PostResponse>) pages.get(key, k -> loader.get());
+    }
+
+    /** A post was created, edited or deleted. */
+    public void feedChanged() {
+        AfterCommit.run(pages::invalidateAll);
+    }
+
+    /** A post's counters changed. */
+    public void postChanged(UUID postId) {
+        AfterCommit.run(() -> pages.invalidateIf(page -> contains(page, postId)));
+    }
+
+    /** Counters of these posts were just written; called outside any transaction. */
+    public void postsFlushed(Collection<UUID> postIds) {
+        Set<UUID> ids = Set.copyOf(postIds);
+        pages.invalidateIf(page -> containsAny(page, ids));
+    }
+
+    private static boolean contains(Object page, UUID postId) {
+        return containsAny(page, Set.of(postId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean containsAny(Object page, Set<UUID> postIds) {
+        List<PostResponse> content = page instanceof CursorPage<?> cp
+                ? (List<PostResponse>) cp.content()
+                : ((Page<PostResponse>) page).getContent();
+        for (PostResponse r : content) {
+            for (PostResponse p = r; p != null; p = p.originalPost()) {
+                if (postIds.contains(p.id())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,28 +1,37 @@
 package com.plantsocial.backend.service;
 
 import com.plantsocial.backend.block.BlockService;
+import com.plantsocial.backend.block.BlockSet;
+import com.plantsocial.backend.dto.CursorPage;
+import com.plantsocial.backend.dto.PageCursor;
 import com.plantsocial.backend.dto.PostResponse;
 import com.plantsocial.backend.model.Plant;
 import com.plantsocial.backend.model.Post;
 import com.plantsocial.backend.model.PostLike;
 import com.plantsocial.backend.notification.model.NotificationType;
 import com.plantsocial.backend.notification.NotificationService;
+import com.plantsocial.backend.search.PostSearchService;
 import com.plantsocial.backend.security.SecurityUtils;
+import com.plantsocial.backend.timeline.TimelineService;
 import com.plantsocial.backend.user.User;
-import com.plantsocial.backend.repository.CommentRepository;
 import com.plantsocial.backend.repository.PlantRepository;
 import com.plantsocial.backend.repository.PostLikeRepository;
 import com.plantsocial.backend.repository.PostRepository;
 import com.plantsocial.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.BiFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,15 +42,23 @@ public class FeedService {
 
     private static final Logger log = LoggerFactory.getLogger(FeedService.class);
 
+    // Extra keyset windows fetched when block filtering leaves a cursor slice short
+    private static final int MAX_REFILLS = 3;
+
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
-    private final CommentRepository commentRepository;
     private final PlantRepository plantRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final NotificationService notificationService;
     private final BlockService blockService;
     private final SecurityUtils securityUtils;
+    private final PostHydrationService postHydrationService;
+    private final PostCounterAggregator postCounterAggregator;
+    private final TimelineService timelineService;
+    private final PostSearchService postSearchService;
+    private final TrendEngine trendEngine;
+    private final FeedPageCache feedPageCache;
 
     public PostResponse getPostById(UUID postId) {
         User currentUser = getCurrentUser();
@@ -52,36 +69,159 @@ public class FeedService {
 
     public Page<PostResponse> getFeed(Pageable pageable, String plant, String query) {
         User currentUser = getCurrentUser();
+        BlockSet blocked = blockedFor(currentUser);
 
-        // Get blocked user IDs for the current user (mutual blocking)
-        Set<UUID> blockedIds = Set.of();
-        if (currentUser != null) {
-            blockedIds = blockService.getMutualBlockedUserIds(currentUser.getId());
-        }
+        // Viewers without blocks all see the same page, so it can be shared
+        Page<PostResponse> page = blocked.isEmpty()
+                ? feedPageCache.page(plant, query, pageable, () -> loadFeed(pageable, plant, query, blocked))
+                : loadFeed(pageable, plant, query, blocked);
+
+        return new PageImpl<>(
+                postHydrationService.overlay(page.getContent(), currentUser),
+                page.getPageable(),
+                page.getTotalElements());
+    }
 
+    private Page<PostResponse> loadFeed(Pageable pageable, String plant, String query, BlockSet blocked) {
         Page<Post> posts;
         if (query != null && !query.isBlank()) {
-            posts = blockedIds.isEmpty()
-                    ? postRepository.findByContentContainingIgnoreCaseOrderByCreatedAtDesc(query.trim(), pageable)
-                    : postRepository.findByContentExcludingBlocked(query.trim(), blockedIds, pageable);
+            // Search excludes blocked authors inside the index query itself
+            posts = postSearchService.search(query, blocked, pageable);
         } else if (plant != null && !plant.isBlank()) {
-            posts = blockedIds.isEmpty()
-                    ? postRepository.findByPlantTagIgnoreCaseOrderByCreatedAtDesc(plant.trim(), pageable)
-                    : postRepository.findByPlantTagExcludingBlocked(plant.trim(), blockedIds, pageable);
+            posts = postRepository.findByPlantTagIgnoreCaseOrderByCreatedAtDesc(plant.trim(), pageable);
         } else {
-            posts = blockedIds.isEmpty()
-                    ? postRepository.findAllByOrderByCreatedAtDesc(pageable)
-                    : postRepository.findAllByAuthorIdNotIn(blockedIds, pageable);
+            posts = postRepository.findAllByOrderByCreatedAtDesc(pageable);
         }
 
-        return posts.map(post -> {
-            try {
-                return mapToPostResponse(post, currentUser);
-            } catch (Exception e) {
-                log.error("Error mapping post {}", post.getId(), e);
-                throw e;
+        return new PageImpl<>(
+                postHydrationService.build(visible(posts.getContent(), blocked)),
+                posts.getPageable(),
+                posts.getTotalElements());
+    }
+
+    /**
+     * Posts from accounts the current user follows (plus their own), newest first,
+     * served from the materialized home timeline.
+     */
+    public Page<PostResponse> getFollowingFeed(Pageable pageable) {
+        User currentUser = securityUtils.getCurrentUser();
+        BlockSet blocked = blockedFor(currentUser);
+
+        int offset = (int) pageable.getOffset();
+        int size = pageable.getPageSize();
+        // Fetch one extra to know whether another page exists without a COUNT query
+        List<Post> posts = timelineService.getHomeTimeline(currentUser.getId(), offset, size + 1);
+        boolean hasMore = posts.size() > size;
+        List<Post> page = visible(hasMore ? posts.subList(0, size) : posts, blocked);
+
+        return new PageImpl<>(
+                postHydrationService.hydrate(page, currentUser),
+                pageable,
+                offset + (hasMore ? size + 1 : posts.size()));
+    }
+
+    /**
+     * Keyset variant of {@link #getFeed}: the slice after {@code cursor}, without a COUNT query.
+     */
+    public CursorPage<PostResponse> getFeedPage(String cursor, int size, String plant, String query) {
+        User currentUser = getCurrentUser();
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        BlockSet blocked = blockedFor(currentUser);
+
+        CursorPage<PostResponse> page = blocked.isEmpty()
+                ? feedPageCache.cursorPage(plant, query, cursor, limit,
+                        () -> loadFeedPage(after, limit, plant, query, blocked))
+                : loadFeedPage(after, limit, plant, query, blocked);
+
+        return new CursorPage<>(
+                postHydrationService.overlay(page.content(), currentUser),
+                page.nextCursor(),
+                page.hasMore());
+    }
+
+    private CursorPage<PostResponse> loadFeedPage(PageCursor after, int limit, String plant, String query,
+            BlockSet blocked) {
+        List<Post> posts;
+        if (query != null && !query.isBlank()) {
+            posts = postSearchService.searchAfter(query, blocked, after, limit + 1);
+        } else if (plant != null && !plant.isBlank()) {
+            String tag = plant.trim();
+            posts = fetchVisible(blocked, limit + 1, after,
+                    (from, window) -> postRepository.findByPlantTagPageAfter(tag, from.createdAt(), from.id(), window));
+        } else {
+            posts = fetchVisible(blocked, limit + 1, after,
+                    (from, window) -> postRepository.findPageAfter(from.createdAt(), from.id(), window));
+        }
+
+        return CursorPage.of(posts, limit, FeedService::cursorOf, postHydrationService::build);
+    }
+
+    /** Keyset variant of {@link #getFollowingFeed}. */
+    public CursorPage<PostResponse> getFollowingFeedPage(String cursor, int size) {
+        User currentUser = securityUtils.getCurrentUser();
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        BlockSet blocked = blockedFor(currentUser);
+
+        List<Post> posts = fetchVisible(blocked, limit + 1, after,
+                (from, window) -> timelineService.getHomeTimelineAfter(currentUser.getId(), from,
+                        window.getPageSize()));
+        return CursorPage.of(posts, limit, FeedService::cursorOf,
+                page -> postHydrationService.hydrate(page, currentUser));
+    }
+
+    /** A user's own posts, newest first, in keyset slices. */
+    public CursorPage<PostResponse> getUserPostsPage(UUID userId, String cursor, int size) {
+        User currentUser = getCurrentUser();
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Post> posts = postRepository.findByAuthorPageAfter(userId, after.createdAt(), after.id(),
+                PageRequest.of(0, limit + 1));
+        return CursorPage.of(posts, limit, FeedService::cursorOf,
+                page -> postHydrationService.hydrate(page, currentUser));
+    }
+
+    /**
+     * Keyset fetch with in-memory block filtering. Blocked rows are dropped after the
+     * query, so the SQL never depends on the block list; if filtering leaves the slice
+     * short, the next window is fetched from where the previous one ended.
+     */
+    private List<Post> fetchVisible(BlockSet blocked, int want, PageCursor after,
+            BiFunction<PageCursor, Pageable, List<Post>> query) {
+        if (blocked.isEmpty()) {
+            return query.apply(after, PageRequest.of(0, want));
+        }
+        List<Post> result = new ArrayList<>(want);
+        PageCursor from = after;
+        for (int round = 0; round < MAX_REFILLS && result.size() < want; round++) {
+            List<Post> rows = query.apply(from, PageRequest.of(0, want));
+            for (Post post : rows) {
+                if (result.size() < want && !blocked.contains(post.getAuthor().getId())) {
+                    result.add(post);
+                }
             }
-        });
+            if (rows.size() < want) {
+                break;
+            }
+            from = cursorOf(rows.get(rows.size() - 1));
+        }
+        return result;
+    }
+
+    private static List<Post> visible(List<Post> posts, BlockSet blocked) {
+        if (blocked.isEmpty()) {
+            return posts;
+        }
+        return posts.stream().filter(p -> !blocked.contains(p.getAuthor().getId())).toList();
+    }
+
+    private BlockSet blockedFor(User viewer) {
+        return viewer != null ? blockService.getBlockSet(viewer.getId()) : BlockSet.EMPTY;
+    }
+
+    private static PageCursor cursorOf(Post post) {
+        return new PageCursor(post.getCreatedAt(), post.getId());
     }
 
     @Transactional
@@ -106,6 +246,8 @@ public class FeedService {
                 .plantTag(plantTag != null && !plantTag.isBlank() ? plantTag.trim() : null)
                 .build();
         Post savedPost = postRepository.save(post);
+        timelineService.onPostCreated(savedPost);
+        feedPageCache.feedChanged();
         return mapToPostResponse(savedPost, user);
     }
 
@@ -118,6 +260,7 @@ public class FeedService {
         // Set or clear plantTag
         post.setPlantTag(plantTag != null && !plantTag.isBlank() ? plantTag.trim() : null);
         Post savedPost = postRepository.save(post);
+        feedPageCache.feedChanged();
         return mapToPostResponse(savedPost, user);
     }
 
@@ -127,6 +270,13 @@ public class FeedService {
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
         // CascadeType.ALL on comments/likes handles cleanup automatically
         postRepository.delete(post);
+        timelineService.onPostDeleted(postId);
+        feedPageCache.feedChanged();
+        trendEngine.remove(post);
+        if (post.getRepostOf() != null) {
+            postCounterAggregator.repostRemoved(post.getRepostOf().getId());
+            trendEngine.record(post.getRepostOf(), TrendEngine.Engagement.UNREPOST);
+        }
     }
 
     @Transactional
@@ -136,13 +286,20 @@ public class FeedService {
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
 
         if (postLikeRepository.existsByPostAndUser(post, user)) {
-            postLikeRepository.deleteByPostAndUser(post, user);
+            if (postLikeRepository.deleteByPostAndUser(post, user) > 0) {
+                postCounterAggregator.likeRemoved(post.getId());
+                feedPageCache.postChanged(post.getId());
+                trendEngine.record(post, TrendEngine.Engagement.UNLIKE);
+            }
         } else {
             PostLike like = PostLike.builder()
                     .post(post)
                     .user(user)
                     .build();
             postLikeRepository.save(like);
+            postCounterAggregator.likeAdded(post.getId());
+            feedPageCache.postChanged(post.getId());
+            trendEngine.record(post, TrendEngine.Engagement.LIKE);
 
             // Notify post author
             notificationService.createNotification(
@@ -158,42 +315,12 @@ public class FeedService {
         return securityUtils.getCurrentUserOrNull();
     }
 
-    public PostResponse mapToPostResponsePublic(Post post, User currentUser) {
-        return mapToPostResponse(post, currentUser);
+    public List<PostResponse> mapToPostResponses(List<Post> posts, User currentUser) {
+        return postHydrationService.hydrate(posts, currentUser);
     }
 
     private PostResponse mapToPostResponse(Post post, User currentUser) {
-        long likesCount = postLikeRepository.countByPost(post);
-        long commentCount = commentRepository.countByPost(post);
-        boolean likedByCurrentUser = currentUser != null && postLikeRepository.existsByPostAndUser(post, currentUser);
-
-        // Repost logic
-        long repostCount = postRepository.countByRepostOfId(post.getId());
-        boolean isRepostedByCurrentUser = currentUser != null
-                && postRepository.existsByAuthorIdAndRepostOfId(currentUser.getId(), post.getId());
-
-        UUID plantId = post.getPlant() != null ? post.getPlant().getId() : null;
-        String plantNickname = post.getPlant() != null ? post.getPlant().getNickname() : null;
-
-        return new PostResponse(
-                post.getId(),
-                post.getContent(),
-                post.getImageUrl(),
-                post.getAuthor().getFullName(),
-                post.getAuthor().getHandle(),
-                post.getAuthor().getId(),
-                post.getCreatedAt(),
-                likesCount,
-                commentCount,
-                likedByCurrentUser,
-                plantId,
-                plantNickname,
-                post.getPlantTag(),
-                post.getAuthor().getProfilePictureUrl(),
-                post.getRepostOf() != null ? mapToPostResponse(post.getRepostOf(), currentUser) : null,
-                repostCount,
-                isRepostedByCurrentUser,
-                post.getAuthor().getSubscriptionTier() != null ? post.getAuthor().getSubscriptionTier().name() : null);
+        return postHydrationService.hydrate(post, currentUser);
     }
 
     @Transactional
@@ -206,33 +333,49 @@ public class FeedService {
 
         // Flatten reposts: Always repost the ROOT original post
         Post originalPost = targetPost;
-        while (originalPost.getRepostOf() != null) {
-            originalPost = originalPost.getRepostOf();
+        if (targetPost.getRootPostId() != null) {
+            originalPost = postRepository.findById(targetPost.getRootPostId())
+                    .orElseThrow(() -> new IllegalArgumentException("Post not found: " + targetPost.getRootPostId()));
+        } else if (targetPost.getRepostOf() != null) {
+            // Not yet backfilled
+            originalPost = targetPost.getRepostOf();
+            while (originalPost.getRepostOf() != null) {
+                originalPost = originalPost.getRepostOf();
+            }
         }
         log.info("Original post resolved: originalPostId={}", originalPost.getId());
 
         // Toggle Repost Logic
-        boolean alreadyReposted = postRepository.existsByAuthorIdAndRepostOfId(user.getId(), originalPost.getId());
-        log.info("Already reposted: {}", alreadyReposted);
-
-        if (alreadyReposted) {
-            // Undo repost
-            java.util.Optional<Post> existingRepost = postRepository.findByAuthorIdAndRepostOfId(user.getId(),
-                    originalPost.getId());
-            existingRepost.ifPresent(repost -> {
+        List<Post> existingReposts = postRepository.findAllByAuthorIdAndRootPostId(user.getId(),
+                originalPost.getId());
+        log.info("Already reposted: {}", !existingReposts.isEmpty());
+
+        if (!existingReposts.isEmpty()) {
+            // Undo repost (also clears duplicates left from before uk_posts_user_root)
+            for (Post repost : existingReposts) {
                 log.info("Deleting repost: repostId={}", repost.getId());
                 postRepository.delete(repost);
                 postRepository.flush();
-            });
+                timelineService.onPostDeleted(repost.getId());
+                postCounterAggregator.repostRemoved(repost.getRepostOf().getId());
+                trendEngine.remove(repost);
+                trendEngine.record(originalPost, TrendEngine.Engagement.UNREPOST);
+            }
+            feedPageCache.feedChanged();
         } else {
-            // Create new repost
-            Post repost = Post.builder()
-                    .author(user)
-                    .repostOf(originalPost)
-                    .build();
-
+            // Create new repost; the unique index turns a concurrent double repost into a no-op
             log.info("Saving new repost for originalPostId={}", originalPost.getId());
-            postRepository.save(repost);
+            UUID repostId = UUID.randomUUID();
+            if (postRepository.insertRepost(repostId, user.getId(), originalPost.getId(), LocalDateTime.now()) == 0) {
+                log.info("Repost of {} by {} already exists", originalPost.getId(), user.getId());
+                return;
+            }
+            Post repost = postRepository.findById(repostId)
+                    .orElseThrow(() -> new IllegalStateException("Repost vanished: " + repostId));
+            postCounterAggregator.repostAdded(originalPost.getId());
+            trendEngine.record(originalPost, TrendEngine.Engagement.REPOST);
+            timelineService.onPostCreated(repost);
+            feedPageCache.feedChanged();
 
             // Notify original author (only if not self-repost)
             if (!originalPost.getAuthor().getId().equals(user.getId())) {
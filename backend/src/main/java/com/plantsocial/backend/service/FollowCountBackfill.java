@@ -0,0 +1,70 @@
+package com.plantsocial.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recounts users.follower_count and following_count from user_follows once, for data
+ * written before the counters existed; FollowService keeps them current afterwards.
+ *
+ * The run is recorded in app_backfills in the same transaction, so it happens once per
+ * database: a node starting while another runs it waits on the marker row and then
+ * skips. user_follows is locked in SHARE mode for the recount, so follows and unfollows
+ * committed meanwhile (their edge is written before the counters move) cannot be lost.
+ */
+@Slf4j
+@Component
+public class FollowCountBackfill {
+
+    private static final String MARKER = "follow_counts";
+
+    private static final String MARK_SQL =
+            "INSERT INTO app_backfills (name) VALUES (?) ON CONFLICT DO NOTHING";
+
+    // Users without any edge are included, so stale non-zero counters are reset as well
+    private static final String FOLLOWERS_SQL = """
+            UPDATE users u SET follower_count = COALESCE(c.n, 0)
+            FROM users x LEFT JOIN (SELECT following_id, COUNT(*) AS n FROM user_follows GROUP BY following_id) c
+                ON c.following_id = x.id
+            WHERE x.id = u.id AND u.follower_count IS DISTINCT FROM COALESCE(c.n, 0)
+            """;
+
+    private static final String FOLLOWING_SQL = """
+            UPDATE users u SET following_count = COALESCE(c.n, 0)
+            FROM users x LEFT JOIN (SELECT follower_id, COUNT(*) AS n FROM user_follows GROUP BY follower_id) c
+                ON c.follower_id = x.id
+            WHERE x.id = u.id AND u.following_count IS DISTINCT FROM COALESCE(c.n, 0)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FollowCountBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(MARK_SQL, MARKER) == 0) {
+                    return;
+                }
+                jdbcTemplate.execute("LOCK TABLE user_follows IN SHARE MODE");
+                int followers = jdbcTemplate.update(FOLLOWERS_SQL);
+                int following = jdbcTemplate.update(FOLLOWING_SQL);
+                log.info("Recounted follow counters: {} follower counts and {} following counts fixed",
+                        followers, following);
+            });
+        } catch (Exception e) {
+            // Rolled back with the marker, so the next startup tries again
+            log.error("Follow counter backfill failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package com.plantsocial.backend.service;
+
+import com.plantsocial.backend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * In-memory follow graph behind follow suggestions and mutual connections.
+ *
+ * Users are interned to dense int indices and edges are stored in CSR form: one
+ * {@code int[]} of offsets and one of sorted neighbour indices, for each direction.
+ * Follow/unfollow events (applied after commit) replace only the touched rows, as
+ * copy-on-write overrides on top of the immutable base; a scheduled compaction folds
+ * them back into a fresh CSR. Readers never lock or copy: they walk slices of the
+ * current base or of an override, both immutable sorted arrays, and map indices back
+ * to ids through an immutable snapshot of the id arrays.
+ *
+ * The graph is loaded from {@code user_follows} once the application is ready; until
+ * then {@link #isReady()} is false and callers fall back to the database. It is rebuilt
+ * from the table on a schedule as a new {@link Generation} (events committed meanwhile
+ * are replayed on top), so each node converges on the database and deleted users drop
+ * out of the index.
+ */
+@Slf4j
+@Component
+public class FollowGraph {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxScan;
+    private final int popularSize;
+
+    // Null until the first load succeeds; writers hold the monitor, readers never do
+    private volatile Generation current;
+    // Events committed while a load reads the table, replayed onto the new generation
+    private List<Event> pendingDuringLoad;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    public FollowGraph(JdbcTemplate jdbcTemplate,
+            @Value("${follow-graph.max-scan:100000}") int maxScan,
+            @Value("${follow-graph.popular-size:200}") int popularSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxScan = maxScan;
+        this.popularSize = popularSize;
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /** Records a new follow edge once the current transaction commits. */
+    public void follow(UUID followerId, UUID followingId) {
+        AfterCommit.run(() -> record(new Event(followerId, followingId, true)));
+    }
+
+    public void unfollow(UUID followerId, UUID followingId) {
+        AfterCommit.run(() -> record(new Event(followerId, followingId, false)));
+    }
+
+    /**
+     * Users the given user does not follow yet, ranked by how many of the accounts they
+     * follow follow them ("friends of friends"), then by follower count; topped up with
+     * the most followed users overall.
+     */
+    public List<UUID> suggest(UUID userId, int limit) {
+        Generation g = current;
+        if (g == null) {
+            return List.of();
+        }
+        State s = g.state;
+        Integer boxed = g.indexById.get(userId);
+        int self = boxed != null ? boxed : -1;
+        Row following = self >= 0 ? s.out(self) : Row.EMPTY;
+
+        // Gather every second-hop candidate, then count duplicates by sorting
+        int[] candidates = new int[Math.min(maxScan, 1024)];
+        int size = 0;
+        scan:
+        for (int f = following.from(); f < following.to(); f++) {
+            Row second = s.out(following.values()[f]);
+            for (int c = second.from(); c < second.to(); c++) {
+                int candidate = second.values()[c];
+                if (size == maxScan) {
+                    break scan;
+                }
+                if (candidate != self && !following.contains(candidate)) {
+                    if (size == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, Math.min(maxScan, size * 2));
+                    }
+                    candidates[size++] = candidate;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, size);
+
+        int[] best = new int[limit];
+        int[] bestMutual = new int[limit];
+        int found = 0;
+        for (int i = 0; i < size; ) {
+            int candidate = candidates[i];
+            int j = i;
+            while (j < size && candidates[j] == candidate) {
+                j++;
+            }
+            found = offer(s, best, bestMutual, found, candidate, j - i);
+            i = j;
+        }
+
+        List<UUID> result = new ArrayList<>(limit);
+        for (int i = 0; i < found; i++) {
+            result.add(g.idAt(best[i]));
+        }
+        for (int i = 0; i < s.popular().length && result.size() < limit; i++) {
+            int candidate = s.popular()[i];
+            if (candidate != self && !following.contains(candidate) && !contains(best, found, candidate)) {
+                result.add(g.idAt(candidate));
+            }
+        }
+        return result;
+    }
+
+    /** Users that the given user follows and who follow them back. */
+    public List<UUID> mutuals(UUID userId) {
+        Generation g = current;
+        Integer self = g != null ? g.indexById.get(userId) : null;
+        if (self == null) {
+            return List.of();
+        }
+        State s = g.state;
+        Row following = s.out(self);
+        Row followers = s.in(self);
+        int[] a = following.values();
+        int[] b = followers.values();
+        List<UUID> result = new ArrayList<>();
+        // Both rows are sorted, so a merge walk intersects them
+        for (int i = following.from(), j = followers.from(); i < following.to() && j < followers.to(); ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result.add(g.idAt(a[i]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                pendingDuringLoad = new ArrayList<>();
+            }
+            long start = System.currentTimeMillis();
+            Generation g = new Generation();
+            int[][] edges = {new int[1024], new int[1024]};
+            int[] count = {0};
+            jdbcTemplate.query("SELECT follower_id, following_id FROM user_follows", rs -> {
+                if (count[0] == edges[0].length) {
+                    edges[0] = Arrays.copyOf(edges[0], count[0] * 2);
+                    edges[1] = Arrays.copyOf(edges[1], count[0] * 2);
+                }
+                edges[0][count[0]] = g.intern(rs.getObject(1, UUID.class));
+                edges[1][count[0]] = g.intern(rs.getObject(2, UUID.class));
+                count[0]++;
+            });
+            int n = g.ids.count();
+            Csr out = Csr.build(n, edges[0], edges[1], count[0]);
+            Csr in = Csr.build(n, edges[1], edges[0], count[0]);
+            g.state = new State(out, in, rankPopular(in, n), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            synchronized (this) {
+                // Events committed while the table was being read are replayed on top
+                for (Event event : pendingDuringLoad) {
+                    g.apply(event);
+                }
+                pendingDuringLoad = null;
+                current = g;
+            }
+            log.info("Follow graph loaded: {} users, {} edges in {} ms",
+                    g.ids.count(), count[0], System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            synchronized (this) {
+                pendingDuringLoad = null;
+            }
+            log.warn("Follow graph load failed, {}: {}", isReady()
+                    ? "keeping the previous graph" : "suggestions fall back to the database", e.getMessage());
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /** Reloads the graph from user_follows, correcting any drift from missed events. */
+    @Scheduled(initialDelayString = "${follow-graph.rebuild-interval-ms:900000}",
+            fixedDelayString = "${follow-graph.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        load();
+    }
+
+    /** Folds the row overrides back into a fresh CSR and re-ranks popular users. */
+    @Scheduled(fixedDelayString = "${follow-graph.compact-interval-ms:60000}")
+    public synchronized void compact() {
+        Generation g = current;
+        if (g == null) {
+            return;
+        }
+        State s = g.state;
+        if (s.outOverrides().isEmpty() && s.inOverrides().isEmpty()) {
+            return;
+        }
+        int n = g.ids.count();
+        Csr out = Csr.fromRows(n, s::out);
+        Csr in = Csr.fromRows(n, s::in);
+        g.state = new State(out, in, rankPopular(in, n), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private synchronized void record(Event event) {
+        if (pendingDuringLoad != null) {
+            pendingDuringLoad.add(event);
+        }
+        Generation g = current;
+        if (g != null) {
+            g.apply(event);
+        }
+    }
+
+    // Keeps the top `found` candidates sorted by mutual count, then follower count
+    static int offer(State s, int[] best, int[] bestMutual, int found, int candidate, int mutual) {
+        int followers = s.in(candidate).size();
+        int pos = found;
+        while (pos > 0 && (bestMutual[pos - 1] < mutual
+                || bestMutual[pos - 1] == mutual && s.in(best[pos - 1]).size() < followers)) {
+            pos--;
+        }
+        if (pos == best.length) {
+            return found;
+        }
+        int last = Math.min(found, best.length - 1);
+        System.arraycopy(best, pos, best, pos + 1, last - pos);
+        System.arraycopy(bestMutual, pos, bestMutual, pos + 1, last - pos);
+        best[pos] = candidate;
+        bestMutual[pos] = mutual;
+        return Math.min(found + 1, best.length);
+    }
+
+    // Sorts (follower count, index) pairs packed into longs, so ranking stays unboxed
+    private int[] rankPopular(Csr in, int n) {
+        long[] keys = new long[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int degree = in.degree(i);
+            if (degree > 0) {
+                keys[size++] = (long) degree << 32 | i;
+            }
+        }
+        Arrays.sort(keys, 0, size);
+        int[] popular = new int[Math.min(popularSize, size)];
+        for (int i = 0; i < popular.length; i++) {
+            popular[i] = (int) keys[size - 1 - i];
+        }
+        return popular;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int[] insert(Row row, int value) {
+        int pos = -Arrays.binarySearch(row.values(), row.from(), row.to(), value) - 1 - row.from();
+        int[] result = new int[row.size() + 1];
+        System.arraycopy(row.values(), row.from(), result, 0, pos);
+        result[pos] = value;
+        System.arraycopy(row.values(), row.from() + pos, result, pos + 1, row.size() - pos);
+        return result;
+    }
+
+    static int[] remove(Row row, int value) {
+        int pos = Arrays.binarySearch(row.values(), row.from(), row.to(), value) - row.from();
+        int[] result = new int[row.size() - 1];
+        System.arraycopy(row.values(), row.from(), result, 0, pos);
+        System.arraycopy(row.values(), row.from() + pos + 1, result, pos, row.size() - pos - 1);
+        return result;
+    }
+
+    private record Event(UUID followerId, UUID followingId, boolean add) {
+    }
+
+    /** Index <-> user id. Ids are stored as high/low bit pairs, as in BlockSet. */
+    private record Ids(long[] msb, long[] lsb, int count) {
+    }
+
+    /**
+     * One load of the graph: the user index and the edges over it. Writers hold the
+     * FollowGraph monitor (or own a generation that is not published yet). An index a
+     * reader finds was published in {@link #ids} before it became reachable, so readers
+     * resolve it from the volatile snapshot without locking.
+     */
+    private static final class Generation {
+
+        final Map<UUID, Integer> indexById = new ConcurrentHashMap<>();
+        volatile Ids ids = new Ids(new long[1024], new long[1024], 0);
+        volatile State state = new State(Csr.EMPTY, Csr.EMPTY, new int[0],
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+        int intern(UUID id) {
+            Integer existing = indexById.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            Ids snapshot = ids;
+            int index = snapshot.count();
+            long[] msb = snapshot.msb();
+            long[] lsb = snapshot.lsb();
+            if (index == msb.length) {
+                msb = Arrays.copyOf(msb, index * 2);
+                lsb = Arrays.copyOf(lsb, index * 2);
+            }
+            // Slots past an older snapshot's count are never read through it
+            msb[index] = id.getMostSignificantBits();
+            lsb[index] = id.getLeastSignificantBits();
+            ids = new Ids(msb, lsb, index + 1);
+            indexById.put(id, index);
+            return index;
+        }
+
+        UUID idAt(int index) {
+            Ids snapshot = ids;
+            return new UUID(snapshot.msb()[index], snapshot.lsb()[index]);
+        }
+
+        void apply(Event event) {
+            int follower = intern(event.followerId());
+            int following = intern(event.followingId());
+            State s = state;
+            Row out = s.out(follower);
+            if (out.contains(following) == event.add()) {
+                return; // Already applied
+            }
+            Row in = s.in(following);
+            s.outOverrides().put(follower, event.add() ? insert(out, following) : remove(out, following));
+            s.inOverrides().put(following, event.add() ? insert(in, follower) : remove(in, follower));
+        }
+    }
+
+    record State(Csr outBase, Csr inBase, int[] popular,
+            Map<Integer, int[]> outOverrides, Map<Integer, int[]> inOverrides) {
+
+        Row out(int node) {
+            int[] row = outOverrides.get(node);
+            return row != null ? new Row(row, 0, row.length) : outBase.row(node);
+        }
+
+        Row in(int node) {
+            int[] row = inOverrides.get(node);
+            return row != null ? new Row(row, 0, row.length) : inBase.row(node);
+        }
+    }
+
+    /** A sorted slice of an adjacency array; never copied, never mutated. */
+    record Row(int[] values, int from, int to) {
+
+        static final Row EMPTY = new Row(new int[0], 0, 0);
+
+        int size() {
+            return to - from;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, from, to, value) >= 0;
+        }
+    }
+
+    /** Compressed sparse rows: node i's neighbours are targets[offsets[i] .. offsets[i + 1]), sorted. */
+    record Csr(int[] offsets, int[] targets) {
+
+        static final Csr EMPTY = new Csr(new int[1], new int[0]);
+
+        static Csr build(int n, int[] from, int[] to, int edges) {
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < edges; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] targets = new int[edges];
+            int[] cursor = Arrays.copyOf(offsets, n);
+            for (int e = 0; e < edges; e++) {
+                targets[cursor[from[e]]++] = to[e];
+            }
+            for (int i = 0; i < n; i++) {
+                Arrays.sort(targets, offsets[i], offsets[i + 1]);
+            }
+            return new Csr(offsets, targets);
+        }
+
+        static Csr fromRows(int n, IntFunction<Row> rows) {
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] = offsets[i] + rows.apply(i).size();
+            }
+            int[] targets = new int[offsets[n]];
+            for (int i = 0; i < n; i++) {
+                Row row = rows.apply(i);
+                System.arraycopy(row.values(), row.from(), targets, offsets[i], row.size());
+            }
+            return new Csr(offsets, targets);
+        }
+
+        int degree(int node) {
+            return node + 1 < offsets.length ? offsets[node + 1] - offsets[node] : 0;
+        }
+
+        // Nodes interned after this CSR was built have no base edges yet
+        Row row(int node) {
+            return node + 1 < offsets.length ? new Row(targets, offsets[node], offsets[node + 1]) : Row.EMPTY;
+        }
+    }
+}
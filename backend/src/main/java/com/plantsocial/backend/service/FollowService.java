@@ -4,6 +4,7 @@ import com.plantsocial.backend.dto.UserHoverCardDTO;
 import com.plantsocial.backend.notification.NotificationService;
 import com.plantsocial.backend.notification.model.NotificationType;
 import com.plantsocial.backend.security.SecurityUtils;
+import com.plantsocial.backend.timeline.TimelineService;
 import com.plantsocial.backend.user.User;
 import com.plantsocial.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,8 @@ public class FollowService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final SecurityUtils securityUtils;
+    private final TimelineService timelineService;
+    private final FollowGraph followGraph;
 
     @Transactional(readOnly = true)
     public UserHoverCardDTO getHoverCard(String username) {
@@ -54,10 +57,10 @@ public class FollowService {
             throw new IllegalArgumentException("Cannot follow yourself");
         }
 
-        if (!currentUser.getFollowing().contains(targetUser)) {
-            currentUser.getFollowing().add(targetUser);
-            targetUser.getFollowers().add(currentUser); // sync both sides
-            userRepository.save(currentUser);
+        if (userRepository.insertFollow(currentUser.getId(), targetUser.getId()) > 0) {
+            adjustFollowCounts(currentUser, targetUser, 1);
+            followGraph.follow(currentUser.getId(), targetUser.getId());
+            timelineService.onFollow(currentUser.getId(), targetUser.getId());
 
             // Notify target user
             notificationService.createNotification(
@@ -82,22 +85,30 @@ public class FollowService {
         User targetUser = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        if (currentUser.getFollowing().contains(targetUser)) {
-            currentUser.getFollowing().remove(targetUser);
-            targetUser.getFollowers().remove(currentUser); // sync both sides
-            userRepository.save(currentUser);
+        if (userRepository.deleteFollow(currentUser.getId(), targetUser.getId()) > 0) {
+            adjustFollowCounts(currentUser, targetUser, -1);
+            followGraph.unfollow(currentUser.getId(), targetUser.getId());
+            timelineService.onUnfollow(currentUser.getId(), targetUser.getId());
         }
 
         return buildHoverCard(targetUser, currentUser);
     }
 
+    // The counter columns are read-only for JPA, so the loaded entities are moved along
+    // with the UPDATE to keep this response consistent without re-reading them.
+    private void adjustFollowCounts(User follower, User followed, long delta) {
+        userRepository.adjustFollowCounts(follower.getId(), followed.getId(), delta);
+        follower.setFollowingCount(follower.getFollowingCount() + delta);
+        followed.setFollowerCount(followed.getFollowerCount() + delta);
+    }
+
     private UserHoverCardDTO buildHoverCard(User targetUser, User currentUser) {
-        long followerCount = targetUser.getFollowers().size();
-        long followingCount = targetUser.getFollowing().size();
+        long followerCount = targetUser.getFollowerCount();
+        long followingCount = targetUser.getFollowingCount();
 
         boolean isFollowing = false;
         if (currentUser != null && !currentUser.getId().equals(targetUser.getId())) {
-            isFollowing = targetUser.getFollowers().contains(currentUser);
+            isFollowing = userRepository.isFollowing(currentUser.getId(), targetUser.getId());
         }
 
         return UserHoverCardDTO.builder()
@@ -0,0 +1,193 @@
+package com.plantsocial.backend.service;
+
+import com.plantsocial.backend.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind aggregator for the denormalized like/comment/repost counters on posts.
+ *
+ * Writers only bump in-memory LongAdders (after their transaction commits); a scheduled
+ * flush turns the accumulated deltas into one batched UPDATE per interval, so a viral
+ * post costs one row update every few hundred ms instead of one per like.
+ * A periodic reconciliation rebuilds the counters from the source tables to repair
+ * any drift (crashes before a flush, concurrent toggles, manual DB edits). Posts that
+ * receive deltas while the recount runs are skipped until the next pass, since their
+ * recount may already include a delta that is still pending.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCounterAggregator {
+
+    private static final String FLUSH_SQL = """
+            UPDATE posts
+            SET like_count = like_count + ?, comment_count = comment_count + ?, repost_count = repost_count + ?
+            WHERE id = ?
+            """;
+
+    private static final String RECOUNT_SQL = """
+            SELECT s.id, p.like_count, p.comment_count, p.repost_count, s.likes, s.comments, s.reposts
+            FROM posts p
+            JOIN (
+                SELECT p2.id,
+                       (SELECT COUNT(*) FROM likes l WHERE l.post_id = p2.id) AS likes,
+                       (SELECT COUNT(*) FROM comments c WHERE c.post_id = p2.id) AS comments,
+                       (SELECT COUNT(*) FROM posts r WHERE r.repost_of_id = p2.id) AS reposts
+                FROM posts p2
+            ) s ON s.id = p.id
+            WHERE (p.like_count, p.comment_count, p.repost_count) IS DISTINCT FROM (s.likes, s.comments, s.reposts)
+            """;
+
+    // Only overwrites counters still holding the values the recount saw, so a flush
+    // that lands in between is never clobbered
+    private static final String FIX_SQL = """
+            UPDATE posts
+            SET like_count = ?, comment_count = ?, repost_count = ?
+            WHERE id = ? AND like_count = ? AND comment_count = ? AND repost_count = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FeedPageCache feedPageCache;
+
+    // Writers share the read lock; flush takes the write lock only to swap the map,
+    // so no increment can land in a map that is already being flushed.
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<UUID, Deltas> pending = new ConcurrentHashMap<>();
+
+    // Posts that received deltas while a reconciliation is running; null otherwise
+    private volatile Set<UUID> touchedDuringReconcile;
+
+    public void likeAdded(UUID postId) {
+        record(postId, 1, 0, 0);
+    }
+
+    public void likeRemoved(UUID postId) {
+        record(postId, -1, 0, 0);
+    }
+
+    public void commentAdded(UUID postId) {
+        record(postId, 0, 1, 0);
+    }
+
+    public void repostAdded(UUID postId) {
+        record(postId, 0, 0, 1);
+    }
+
+    public void repostRemoved(UUID postId) {
+        record(postId, 0, 0, -1);
+    }
+
+    private void record(UUID postId, long likes, long comments, long reposts) {
+        AfterCommit.run(() -> add(postId, likes, comments, reposts));
+    }
+
+    private void add(UUID postId, long likes, long comments, long reposts) {
+        swapLock.readLock().lock();
+        try {
+            Deltas deltas = pending.computeIfAbsent(postId, id -> new Deltas());
+            deltas.likes.add(likes);
+            deltas.comments.add(comments);
+            deltas.reposts.add(reposts);
+            Set<UUID> touched = touchedDuringReconcile;
+            if (touched != null) {
+                touched.add(postId);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${feed.counters.flush-interval-ms:250}")
+    public synchronized void flush() {
+        Map<UUID, Deltas> toFlush;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            toFlush = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<Object[]> rows = new ArrayList<>(toFlush.size());
+        toFlush.forEach((postId, d) -> {
+            long likes = d.likes.sum();
+            long comments = d.comments.sum();
+            long reposts = d.reposts.sum();
+            if (likes != 0 || comments != 0 || reposts != 0) {
+                rows.add(new Object[] { likes, comments, reposts, postId });
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+            // Pages cached between the commit and this flush still show the old counts
+            feedPageCache.postsFlushed(rows.stream().map(r -> (UUID) r[3]).toList());
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            log.warn("Post counter flush failed for {} posts, will retry: {}", rows.size(), e.getMessage());
+            rows.forEach(r -> add((UUID) r[3], (long) r[0], (long) r[1], (long) r[2]));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${feed.counters.reconcile-cron:0 15 * * * *}")
+    public synchronized void reconcile() {
+        Set<UUID> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringReconcile = touched;
+        try {
+            flush();
+            List<Object[]> fixes = new ArrayList<>();
+            jdbcTemplate.query(RECOUNT_SQL, rs -> {
+                fixes.add(new Object[] {
+                        rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getObject(1, UUID.class),
+                        rs.getLong(2), rs.getLong(3), rs.getLong(4) });
+            });
+            // Still tracking: a delta landing before the batch below must keep its post out of it
+            fixes.removeIf(f -> touched.contains((UUID) f[3]) || pending.containsKey((UUID) f[3]));
+            if (!fixes.isEmpty()) {
+                int fixed = Arrays.stream(jdbcTemplate.batchUpdate(FIX_SQL, fixes)).sum();
+                log.info("Post counter reconciliation corrected {} posts", fixed);
+            }
+            if (!touched.isEmpty()) {
+                log.debug("Post counter reconciliation skipped {} posts with in-flight deltas", touched.size());
+            }
+        } catch (Exception e) {
+            log.error("Post counter reconciliation failed: {}", e.getMessage(), e);
+        } finally {
+            touchedDuringReconcile = null;
+        }
+    }
+
+    private static final class Deltas {
+        final LongAdder likes = new LongAdder();
+        final LongAdder comments = new LongAdder();
+        final LongAdder reposts = new LongAdder();
+    }
+}
@@ -0,0 +1,138 @@
+package com.plantsocial.backend.service;
+
+import com.plantsocial.backend.dto.PostResponse;
+import com.plantsocial.backend.model.Post;
+import com.plantsocial.backend.repository.PostLikeRepository;
+import com.plantsocial.backend.repository.PostRepository;
+import com.plantsocial.backend.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds PostResponses for a whole page of posts at once, in two steps:
+ * {@link #build} produces viewer-independent responses (shareable, cacheable) and
+ * {@link #overlay} fills in the current viewer's liked/reposted flags.
+ * Counters come from the denormalized columns on posts; viewer flags are loaded
+ * with one query each (WHERE post_id IN (...)), so the number of queries stays
+ * constant no matter how many posts — or reposted originals — are on the page.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostHydrationService {
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+
+    public PostResponse hydrate(Post post, User viewer) {
+        return hydrate(List.of(post), viewer).get(0);
+    }
+
+    public List<PostResponse> hydrate(List<Post> posts, User viewer) {
+        return overlay(build(posts), viewer);
+    }
+
+    /** Responses with all viewer flags false. */
+    public List<PostResponse> build(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        // Page posts plus the originals they repost, so both are built in the same pass
+        Map<UUID, Post> all = new LinkedHashMap<>();
+        posts.forEach(p -> all.putIfAbsent(p.getId(), p));
+        Set<UUID> missingRoots = new HashSet<>();
+        for (Post post : posts) {
+            if (post.getRootPostId() != null) {
+                if (!all.containsKey(post.getRootPostId())) {
+                    missingRoots.add(post.getRootPostId());
+                }
+            } else {
+                // Repost not yet backfilled: fall back to walking the chain
+                Post p = post.getRepostOf();
+                while (p != null && all.putIfAbsent(p.getId(), p) == null) {
+                    p = p.getRepostOf();
+                }
+            }
+        }
+        // All roots on the page in one query, however deep the chains are
+        postRepository.findAllById(missingRoots).forEach(p -> all.putIfAbsent(p.getId(), p));
+
+        Map<UUID, PostResponse> built = new HashMap<>();
+        return posts.stream()
+                .map(post -> toResponse(post, all, built))
+                .toList();
+    }
+
+    /** Copies of the responses with the viewer's liked/reposted flags set. */
+    public List<PostResponse> overlay(List<PostResponse> responses, User viewer) {
+        if (viewer == null || responses.isEmpty()) {
+            return responses;
+        }
+
+        Set<UUID> ids = new HashSet<>();
+        for (PostResponse r : responses) {
+            for (PostResponse p = r; p != null; p = p.originalPost()) {
+                ids.add(p.id());
+            }
+        }
+        ViewerFlags flags = new ViewerFlags(
+                postLikeRepository.findLikedPostIds(viewer.getId(), ids),
+                postRepository.findRepostedPostIds(viewer.getId(), ids));
+
+        return responses.stream().map(r -> withFlags(r, flags)).toList();
+    }
+
+    private PostResponse withFlags(PostResponse response, ViewerFlags flags) {
+        return response.withViewerFlags(
+                flags.liked().contains(response.id()),
+                flags.reposted().contains(response.id()),
+                response.originalPost() != null ? withFlags(response.originalPost(), flags) : null);
+    }
+
+    private PostResponse toResponse(Post post, Map<UUID, Post> all, Map<UUID, PostResponse> built) {
+        PostResponse cached = built.get(post.getId());
+        if (cached != null) {
+            return cached;
+        }
+
+        UUID id = post.getId();
+        Post original = post.getRootPostId() != null ? all.get(post.getRootPostId()) : post.getRepostOf();
+        UUID plantId = post.getPlant() != null ? post.getPlant().getId() : null;
+        String plantNickname = post.getPlant() != null ? post.getPlant().getNickname() : null;
+
+        PostResponse response = new PostResponse(
+                id,
+                post.getContent(),
+                post.getImageUrl(),
+                post.getAuthor().getFullName(),
+                post.getAuthor().getHandle(),
+                post.getAuthor().getId(),
+                post.getCreatedAt(),
+                post.getLikeCount(),
+                post.getCommentCount(),
+                false,
+                plantId,
+                plantNickname,
+                post.getPlantTag(),
+                post.getAuthor().getProfilePictureUrl(),
+                original != null ? toResponse(original, all, built) : null,
+                post.getRepostCount(),
+                false,
+                post.getAuthor().getSubscriptionTier() != null ? post.getAuthor().getSubscriptionTier().name() : null);
+        built.put(id, response);
+        return response;
+    }
+
+    private record ViewerFlags(
+            Set<UUID> liked,
+            Set<UUID> reposted) {
+    }
+}
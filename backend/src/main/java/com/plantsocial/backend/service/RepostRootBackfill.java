@@ -0,0 +1,72 @@
+package com.plantsocial.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills posts.root_post_id for reposts created before the column existed.
+ * Walks each chain with a recursive CTE and stores the deepest ancestor; runs at
+ * startup and is a no-op once every repost has its root.
+ *
+ * When one user reposted the same root more than once through different chains, only
+ * the earliest of those reposts gets the root; the later ones keep a null root_post_id
+ * so they cannot collide in uk_posts_user_root, the one-repost-per-user-and-root index
+ * that FeedService inserts against and that is created afterwards. A failure to create
+ * it is logged and retried on the next startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RepostRootBackfill {
+
+    private static final String BACKFILL_SQL = """
+            WITH RECURSIVE chain (id, ancestor, depth) AS (
+                SELECT id, repost_of_id, 1 FROM posts
+                WHERE repost_of_id IS NOT NULL AND root_post_id IS NULL
+                UNION ALL
+                SELECT c.id, p.repost_of_id, c.depth + 1
+                FROM chain c JOIN posts p ON p.id = c.ancestor
+                WHERE p.repost_of_id IS NOT NULL AND c.depth < 64
+            ), roots AS (
+                SELECT DISTINCT ON (id) id, ancestor FROM chain ORDER BY id, depth DESC
+            ), firsts AS (
+                SELECT DISTINCT ON (p.user_id, r.ancestor) p.id, p.user_id, r.ancestor
+                FROM roots r JOIN posts p ON p.id = r.id
+                ORDER BY p.user_id, r.ancestor, p.created_at, p.id
+            )
+            UPDATE posts t SET root_post_id = f.ancestor
+            FROM firsts f
+            WHERE t.id = f.id
+              AND NOT EXISTS (SELECT 1 FROM posts o WHERE o.user_id = f.user_id AND o.root_post_id = f.ancestor)
+            """;
+
+    private static final String UNIQUE_INDEX_SQL = """
+            CREATE UNIQUE INDEX IF NOT EXISTS uk_posts_user_root ON posts (user_id, root_post_id)
+            WHERE root_post_id IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int updated = jdbcTemplate.update(BACKFILL_SQL);
+            if (updated > 0) {
+                log.info("Backfilled root_post_id for {} reposts", updated);
+            }
+        } catch (Exception e) {
+            log.error("root_post_id backfill failed: {}", e.getMessage(), e);
+        }
+        try {
+            jdbcTemplate.execute(UNIQUE_INDEX_SQL);
+            // The unique index serves the same lookups
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_posts_user_root");
+        } catch (Exception e) {
+            log.error("Could not create uk_posts_user_root, duplicate reposts remain: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.plantsocial.backend.service;
+
+import com.plantsocial.backend.model.Post;
+import com.plantsocial.backend.repository.PostRepository;
+import com.plantsocial.backend.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory streaming trend tracker.
+ *
+ * Like/comment/repost events (recorded after commit) land in a ring of 24 hourly
+ * buckets per post and per plant tag. A score sums the buckets with exponential decay
+ * ({@code trends.half-life-hours}), so activity fades smoothly instead of dropping off
+ * at a hard 24h cutoff. A scheduled refresh ranks everything into an immutable snapshot
+ * with a bounded min-heap; requests only read that snapshot.
+ */
+@Slf4j
+@Component
+public class TrendEngine {
+
+    static final int WINDOW_HOURS = 24;
+
+    public enum Engagement {
+        LIKE(1), UNLIKE(-1), COMMENT(2), REPOST(3), UNREPOST(-3);
+
+        final int weight;
+
+        Engagement(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public record TrendingPost(UUID postId, String topic, String plantTag, long likes, double score) {
+    }
+
+    public record TrendingTag(String tag, double score) {
+    }
+
+    private record Snapshot(List<TrendingPost> posts, List<TrendingTag> tags) {
+    }
+
+    private final PostRepository postRepository;
+    private final Map<UUID, PostActivity> posts = new ConcurrentHashMap<>();
+    private final Map<String, TagActivity> tags = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(List.of(), List.of());
+
+    private final double decayPerHour;
+    private final int snapshotSize;
+    private final int maxTrackedPosts;
+
+    public TrendEngine(PostRepository postRepository,
+            @Value("${trends.half-life-hours:6}") double halfLifeHours,
+            @Value("${trends.snapshot-size:200}") int snapshotSize,
+            @Value("${trends.max-tracked-posts:100000}") int maxTrackedPosts) {
+        this.postRepository = postRepository;
+        this.decayPerHour = Math.log(2) / halfLifeHours;
+        this.snapshotSize = snapshotSize;
+        this.maxTrackedPosts = maxTrackedPosts;
+    }
+
+    public void record(Post post, Engagement engagement) {
+        PostMeta meta = PostMeta.of(post);
+        AfterCommit.run(() -> add(meta, engagement.weight, engagement, currentHour()));
+    }
+
+    /**
+     * Forgets a deleted post once the transaction commits: its own activity is dropped and
+     * subtracted from its tag, and it is taken out of the current snapshot right away.
+     */
+    public void remove(Post post) {
+        PostMeta meta = PostMeta.of(post);
+        AfterCommit.run(() -> forget(meta));
+    }
+
+    /**
+     * Top posts, optionally restricted to one plant tag (case-insensitive). Tag queries
+     * fall back to scanning the live counters when the global snapshot holds too few
+     * posts for that tag.
+     */
+    public List<TrendingPost> topPosts(String tag, int limit) {
+        if (tag == null || tag.isBlank()) {
+            return snapshot.posts().stream().limit(limit).toList();
+        }
+        String wanted = tag.trim();
+        List<TrendingPost> fromSnapshot = snapshot.posts().stream()
+                .filter(p -> wanted.equalsIgnoreCase(p.plantTag()))
+                .limit(limit)
+                .toList();
+        if (fromSnapshot.size() == limit) {
+            return fromSnapshot;
+        }
+
+        long hour = currentHour();
+        double fraction = currentHourFraction();
+        PriorityQueue<TrendingPost> top = new PriorityQueue<>(Comparator.comparingDouble(TrendingPost::score));
+        for (PostActivity activity : posts.values()) {
+            if (wanted.equalsIgnoreCase(activity.meta.plantTag())) {
+                double score = activity.score(hour, fraction, decayPerHour);
+                if (score > 0) {
+                    offer(top, activity.toTrending(score), limit);
+                }
+            }
+        }
+        return drainDescending(top);
+    }
+
+    public List<TrendingTag> topTags(int limit) {
+        return snapshot.tags().stream().limit(limit).toList();
+    }
+
+    @Scheduled(fixedDelayString = "${trends.refresh-interval-ms:10000}")
+    public void refresh() {
+        long hour = currentHour();
+        double fraction = currentHourFraction();
+
+        posts.values().removeIf(a -> a.isExpired(hour));
+        tags.values().removeIf(a -> a.isExpired(hour));
+
+        PriorityQueue<TrendingPost> topPosts = new PriorityQueue<>(Comparator.comparingDouble(TrendingPost::score));
+        for (PostActivity activity : posts.values()) {
+            double score = activity.score(hour, fraction, decayPerHour);
+            if (score > 0) {
+                offer(topPosts, activity.toTrending(score), snapshotSize);
+            }
+        }
+        PriorityQueue<TrendingTag> topTags = new PriorityQueue<>(Comparator.comparingDouble(TrendingTag::score));
+        for (TagActivity activity : tags.values()) {
+            double score = activity.score(hour, fraction, decayPerHour);
+            if (score > 0) {
+                offer(topTags, new TrendingTag(activity.displayName, score), snapshotSize);
+            }
+        }
+
+        snapshot = new Snapshot(drainDescending(topPosts), drainDescending(topTags));
+        trimIfOversized(hour, fraction);
+    }
+
+    /** Seeds the buckets from the last day's counters so trends are not empty after a restart. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<Post> recent = postRepository.findMostEngagedSince(
+                    LocalDateTime.now().minusHours(WINDOW_HOURS), PageRequest.of(0, snapshotSize));
+            for (Post post : recent) {
+                long hour = toHour(post.getCreatedAt());
+                PostMeta meta = PostMeta.of(post);
+                long weight = post.getLikeCount() * Engagement.LIKE.weight
+                        + post.getCommentCount() * Engagement.COMMENT.weight
+                        + post.getRepostCount() * Engagement.REPOST.weight;
+                add(meta, weight, null, hour);
+            }
+            refresh();
+            log.info("Trend engine warmed up with {} posts", recent.size());
+        } catch (Exception e) {
+            log.warn("Trend engine warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void add(PostMeta meta, long weight, Engagement engagement, long hour) {
+        PostActivity activity = posts.computeIfAbsent(meta.id(), id -> new PostActivity(meta));
+        activity.add(hour, weight);
+        if (engagement == Engagement.LIKE) {
+            activity.likes.incrementAndGet();
+        } else if (engagement == Engagement.UNLIKE) {
+            activity.likes.updateAndGet(l -> Math.max(0, l - 1));
+        }
+        if (meta.plantTag() != null) {
+            tags.computeIfAbsent(meta.plantTag().toLowerCase(Locale.ROOT), k -> new TagActivity(meta.plantTag()))
+                    .add(hour, weight);
+        }
+    }
+
+    private void forget(PostMeta meta) {
+        PostActivity activity = posts.remove(meta.id());
+        if (activity != null && meta.plantTag() != null) {
+            TagActivity tag = tags.get(meta.plantTag().toLowerCase(Locale.ROOT));
+            if (tag != null) {
+                tag.subtract(activity);
+            }
+        }
+        Snapshot current = snapshot;
+        if (current.posts().stream().anyMatch(p -> p.postId().equals(meta.id()))) {
+            snapshot = new Snapshot(
+                    current.posts().stream().filter(p -> !p.postId().equals(meta.id())).toList(),
+                    current.tags());
+        }
+    }
+
+    // Bounds memory under a flood of distinct posts: keep only the highest scoring ones
+    private void trimIfOversized(long hour, double fraction) {
+        int excess = posts.size() - maxTrackedPosts;
+        if (excess <= 0) {
+            return;
+        }
+        posts.entrySet().stream()
+                .sorted(Comparator.comparingDouble(e -> e.getValue().score(hour, fraction, decayPerHour)))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(posts::remove);
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T item, int capacity) {
+        heap.offer(item);
+        if (heap.size() > capacity) {
+            heap.poll();
+        }
+    }
+
+    private static <T> List<T> drainDescending(PriorityQueue<T> heap) {
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        return result.reversed();
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / 3_600_000L;
+    }
+
+    private static double currentHourFraction() {
+        return (System.currentTimeMillis() % 3_600_000L) / 3_600_000.0;
+    }
+
+    private static long toHour(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 3_600_000L;
+    }
+
+    private record PostMeta(UUID id, String topic, String plantTag, long likeCount) {
+
+        static PostMeta of(Post post) {
+            String topic = post.getContent();
+            if (topic != null && topic.length() > 40) {
+                topic = topic.substring(0, 40) + "...";
+            } else if (topic == null || topic.isEmpty()) {
+                topic = "New Photo"; // Fallback for image-only posts
+            }
+            String tag = post.getPlantTag() != null && !post.getPlantTag().isBlank() ? post.getPlantTag() : null;
+            return new PostMeta(post.getId(), topic, tag, post.getLikeCount());
+        }
+    }
+
+    /** 24 hourly buckets; a slot is reused (and reset) once its hour falls out of the window. */
+    private static class HourlyRing {
+        private final long[] counts = new long[WINDOW_HOURS];
+        private final long[] hours = new long[WINDOW_HOURS];
+
+        synchronized void add(long hour, long weight) {
+            int slot = (int) (hour % WINDOW_HOURS);
+            if (hours[slot] != hour) {
+                if (hours[slot] > hour) {
+                    return; // Older than the window
+                }
+                hours[slot] = hour;
+                counts[slot] = 0;
+            }
+            counts[slot] += weight;
+        }
+
+        /** Removes another ring's counts from the slots that cover the same hours. */
+        void subtract(HourlyRing other) {
+            long[] otherCounts;
+            long[] otherHours;
+            synchronized (other) {
+                otherCounts = other.counts.clone();
+                otherHours = other.hours.clone();
+            }
+            synchronized (this) {
+                for (int i = 0; i < WINDOW_HOURS; i++) {
+                    if (otherCounts[i] != 0 && hours[i] == otherHours[i]) {
+                        counts[i] = Math.max(0, counts[i] - otherCounts[i]);
+                    }
+                }
+            }
+        }
+
+        synchronized double score(long hour, double fraction, double decayPerHour) {
+            double score = 0;
+            for (int i = 0; i < WINDOW_HOURS; i++) {
+                long age = hour - hours[i];
+                if (counts[i] != 0 && age >= 0 && age < WINDOW_HOURS) {
+                    score += counts[i] * Math.exp(-decayPerHour * (age + fraction));
+                }
+            }
+            return score;
+        }
+
+        synchronized boolean isExpired(long hour) {
+            for (long h : hours) {
+                if (hour - h < WINDOW_HOURS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class PostActivity extends HourlyRing {
+        final PostMeta meta;
+        final AtomicLong likes = new AtomicLong();
+
+        PostActivity(PostMeta meta) {
+            this.meta = meta;
+            this.likes.set(meta.likeCount());
+        }
+
+        TrendingPost toTrending(double score) {
+            return new TrendingPost(meta.id(), meta.topic(), meta.plantTag(), likes.get(), score);
+        }
+    }
+
+    private static final class TagActivity extends HourlyRing {
+        final String displayName;
+
+        TagActivity(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+}
@@ -1,59 +1,42 @@
 package com.plantsocial.backend.service;
 
 import com.plantsocial.backend.dto.TrendDTO;
-import com.plantsocial.backend.model.Post;
-import com.plantsocial.backend.repository.PostRepository;
+import com.plantsocial.backend.dto.TrendingTagDTO;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TrendService {
 
-    private final PostRepository postRepository;
+    private static final int TOP_POSTS = 5;
 
-    public List<TrendDTO> getTrendingTopics(String tag) {
-        // Fetch posts from last 24 hours
-        LocalDateTime startDate = LocalDateTime.now().minusHours(24);
-        Pageable topFive = PageRequest.of(0, 5);
-
-        List<Post> trendingPosts;
-        if (tag != null && !tag.trim().isEmpty()) {
-            trendingPosts = postRepository.findTrendingPostsByTag(startDate, tag, topFive).getContent();
-        } else {
-            trendingPosts = postRepository.findTrendingPosts(startDate, topFive).getContent();
-        }
+    private final TrendEngine trendEngine;
 
-        return trendingPosts.stream()
+    /** Served from the in-memory trend snapshot; no database access. */
+    public List<TrendDTO> getTrendingTopics(String tag) {
+        return trendEngine.topPosts(tag, TOP_POSTS).stream()
                 .map(this::mapToDTO)
-                .collect(Collectors.toList());
+                .toList();
     }
 
-    private TrendDTO mapToDTO(Post post) {
-        String topic = post.getContent();
-        if (topic != null && topic.length() > 40) {
-            topic = topic.substring(0, 40) + "...";
-        } else if (topic == null || topic.isEmpty()) {
-            topic = "New Photo"; // Fallback for image-only posts
-        }
-
-        int likeCount = post.getLikes().size();
-        String stats = formatLikeCount(likeCount);
+    public List<TrendingTagDTO> getTrendingTags(int limit) {
+        return trendEngine.topTags(limit).stream()
+                .map(t -> new TrendingTagDTO(t.tag(), Math.round(t.score())))
+                .toList();
+    }
 
+    private TrendDTO mapToDTO(TrendEngine.TrendingPost post) {
         return new TrendDTO(
-                post.getId(),
-                topic,
+                post.postId(),
+                post.topic(),
                 "Trending in your network",
-                stats);
+                formatLikeCount(post.likes()));
     }
 
-    private String formatLikeCount(int count) {
+    private String formatLikeCount(long count) {
         if (count >= 1000000) {
             return String.format("%.1fM Likes", count / 1000000.0);
         } else if (count >= 1000) {
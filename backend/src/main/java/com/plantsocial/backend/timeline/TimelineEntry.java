@@ -0,0 +1,49 @@
+package com.plantsocial.backend.timeline;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of a user's materialized home timeline: "post X by author Y should appear
+ * in user Z's following feed". Rows are written at post time (fan-out-on-write) and
+ * read back as a single range scan on (user_id, created_at).
+ * Plain id columns rather than associations, so posts/users can be deleted without
+ * FK ordering concerns and fan-out can be done with one INSERT ... SELECT.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "home_timeline", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "user_id", "post_id" })
+}, indexes = {
+        @Index(name = "idx_home_timeline_user_created", columnList = "user_id, created_at DESC"),
+        @Index(name = "idx_home_timeline_post", columnList = "post_id"),
+        @Index(name = "idx_home_timeline_user_author", columnList = "user_id, author_id")
+})
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "post_id", nullable = false)
+    private UUID postId;
+
+    @Column(name = "author_id", nullable = false)
+    private UUID authorId;
+
+    // Copy of the post's createdAt so the timeline can be ordered without joining posts
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,82 @@
+package com.plantsocial.backend.timeline;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, UUID> {
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.postId DESC")
+    List<TimelineEntry> findLatest(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) " +
+            "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<TimelineEntry> findPageAfter(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("postId") UUID postId, Pageable pageable);
+
+    /**
+     * Pushes a post into the author's own timeline and into every follower's timeline
+     * in a single statement.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO home_timeline (id, user_id, post_id, author_id, created_at)
+            SELECT gen_random_uuid(), f.follower_id, :postId, :authorId, :createdAt
+            FROM user_follows f WHERE f.following_id = :authorId
+            UNION ALL
+            SELECT gen_random_uuid(), :authorId, :postId, :authorId, :createdAt
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int fanOut(@Param("postId") UUID postId, @Param("authorId") UUID authorId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    /** Author-only insert, used for high-follower authors whose posts are merged in at read time. */
+    @Modifying
+    @Query(value = """
+            INSERT INTO home_timeline (id, user_id, post_id, author_id, created_at)
+            VALUES (gen_random_uuid(), :authorId, :postId, :authorId, :createdAt)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertOwn(@Param("postId") UUID postId, @Param("authorId") UUID authorId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    /** Seeds a new follower's timeline with the author's most recent posts. */
+    @Modifying
+    @Query(value = """
+            INSERT INTO home_timeline (id, user_id, post_id, author_id, created_at)
+            SELECT gen_random_uuid(), :userId, p.id, p.user_id, p.created_at
+            FROM posts p WHERE p.user_id = :authorId
+            ORDER BY p.created_at DESC
+            LIMIT :limit
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int backfillFromAuthor(@Param("userId") UUID userId, @Param("authorId") UUID authorId,
+            @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    int deleteByPostId(@Param("postId") UUID postId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.userId = :userId AND t.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") UUID userId, @Param("authorId") UUID authorId);
+
+    /** Keeps every timeline bounded to its newest :maxEntries rows. */
+    @Modifying
+    @Query(value = """
+            DELETE FROM home_timeline t
+            USING (
+                SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY created_at DESC) AS rn
+                FROM home_timeline
+            ) ranked
+            WHERE t.id = ranked.id AND ranked.rn > :maxEntries
+            """, nativeQuery = true)
+    int trimTo(@Param("maxEntries") int maxEntries);
+}
@@ -0,0 +1,149 @@
+package com.plantsocial.backend.timeline;
+
+import com.plantsocial.backend.dto.PageCursor;
+import com.plantsocial.backend.model.Post;
+import com.plantsocial.backend.repository.PostRepository;
+import com.plantsocial.backend.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Materialized "following" feed.
+ *
+ * New posts are pushed into each follower's bounded timeline at write time
+ * (fan-out-on-write), so reading the feed is one indexed range scan. Authors with
+ * more than {@code feed.timeline.fanout-follower-limit} followers are not fanned out;
+ * their recent posts are pulled and merged in at read time instead (fan-out-on-read).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final Comparator<TimelineRef> NEWEST_FIRST = Comparator
+            .comparing(TimelineRef::createdAt, Comparator.reverseOrder())
+            .thenComparing(TimelineRef::postId, PageCursor.ID_ORDER.reversed());
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    @Value("${feed.timeline.max-entries:800}")
+    private int maxEntries;
+
+    @Value("${feed.timeline.fanout-follower-limit:5000}")
+    private long fanOutFollowerLimit;
+
+    @Value("${feed.timeline.follow-backfill:50}")
+    private int followBackfill;
+
+    @Transactional
+    public void onPostCreated(Post post) {
+        UUID authorId = post.getAuthor().getId();
+        if (isHighFollower(authorId)) {
+            timelineEntryRepository.insertOwn(post.getId(), authorId, post.getCreatedAt());
+            log.debug("Skipped fan-out for high-follower author {} (post {})", authorId, post.getId());
+        } else {
+            int inserted = timelineEntryRepository.fanOut(post.getId(), authorId, post.getCreatedAt());
+            log.debug("Fanned out post {} to {} timelines", post.getId(), inserted);
+        }
+    }
+
+    @Transactional
+    public void onPostDeleted(UUID postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    @Transactional
+    public void onFollow(UUID followerId, UUID authorId) {
+        if (!isHighFollower(authorId)) {
+            timelineEntryRepository.backfillFromAuthor(followerId, authorId, followBackfill);
+        }
+    }
+
+    @Transactional
+    public void onUnfollow(UUID followerId, UUID authorId) {
+        timelineEntryRepository.deleteByUserIdAndAuthorId(followerId, authorId);
+    }
+
+    /**
+     * Newest-first slice of the user's following feed: the materialized timeline merged
+     * with recent posts from followed high-follower authors.
+     */
+    @Transactional(readOnly = true)
+    public List<Post> getHomeTimeline(UUID userId, int offset, int limit) {
+        PageRequest window = PageRequest.of(0, offset + limit);
+        List<UUID> pulledAuthors = userRepository.findFollowedUserIdsWithFollowersAtLeast(userId, fanOutFollowerLimit);
+        return merge(
+                timelineEntryRepository.findLatest(userId, window),
+                pulledAuthors.isEmpty() ? List.of() : postRepository.findAllByAuthorIdIn(pulledAuthors, window),
+                offset, limit);
+    }
+
+    /** Keyset variant of {@link #getHomeTimeline}: the {@code limit} entries after the cursor. */
+    @Transactional(readOnly = true)
+    public List<Post> getHomeTimelineAfter(UUID userId, PageCursor cursor, int limit) {
+        PageRequest window = PageRequest.of(0, limit);
+        List<UUID> pulledAuthors = userRepository.findFollowedUserIdsWithFollowersAtLeast(userId, fanOutFollowerLimit);
+        return merge(
+                timelineEntryRepository.findPageAfter(userId, cursor.createdAt(), cursor.id(), window),
+                pulledAuthors.isEmpty() ? List.of()
+                        : postRepository.findByAuthorIdInPageAfter(pulledAuthors, cursor.createdAt(), cursor.id(), window),
+                0, limit);
+    }
+
+    private List<Post> merge(List<TimelineEntry> entries, List<Post> pulled, int skip, int limit) {
+        List<TimelineRef> refs = new ArrayList<>(entries.size() + pulled.size());
+        entries.forEach(e -> refs.add(new TimelineRef(e.getPostId(), e.getCreatedAt())));
+
+        Map<UUID, Post> loaded = new HashMap<>();
+        for (Post post : pulled) {
+            loaded.put(post.getId(), post);
+            refs.add(new TimelineRef(post.getId(), post.getCreatedAt()));
+        }
+
+        List<UUID> pageIds = refs.stream()
+                .sorted(NEWEST_FIRST)
+                .map(TimelineRef::postId)
+                .distinct()
+                .skip(skip)
+                .limit(limit)
+                .toList();
+
+        List<UUID> missing = pageIds.stream().filter(id -> !loaded.containsKey(id)).toList();
+        postRepository.findAllById(missing).forEach(p -> loaded.put(p.getId(), p));
+
+        // Entries whose post was deleted concurrently simply drop out
+        return pageIds.stream().map(loaded::get).filter(Objects::nonNull).toList();
+    }
+
+    @Scheduled(cron = "${feed.timeline.trim-cron:0 45 * * * *}")
+    @Transactional
+    public void trimTimelines() {
+        int removed = timelineEntryRepository.trimTo(maxEntries);
+        if (removed > 0) {
+            log.info("Trimmed {} home timeline entries beyond {} per user", removed, maxEntries);
+        }
+    }
+
+    private boolean isHighFollower(UUID authorId) {
+        return userRepository.countFollowers(authorId) >= fanOutFollowerLimit;
+    }
+
+    private record TimelineRef(UUID postId, LocalDateTime createdAt) {
+    }
+}
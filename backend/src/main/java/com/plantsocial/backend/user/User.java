@@ -105,6 +105,20 @@ public class User implements UserDetails {
     @Builder.Default
     private Boolean enabled = false;
 
+    // Maintained by UnreadNotificationCounter; read-only for JPA so saving a User
+    // never overwrites a concurrent increment.
+    @JsonIgnore
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long unreadNotificationCount;
+
+    // Maintained by FollowService in the same UPDATE that records the follow edge, so
+    // profile and hover-card counts never load the user_follows collections.
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long followerCount;
+
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long followingCount;
+
     // UserDetails Implementation
 
     @Override
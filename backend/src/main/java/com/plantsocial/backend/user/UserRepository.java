@@ -53,7 +53,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                 AND u.id NOT IN (
                     SELECT f.id FROM User me JOIN me.following f WHERE me.id = :currentUserId
                 )
-                ORDER BY SIZE(u.followers) DESC
+                ORDER BY u.followerCount DESC
             """)
     List<User> findSuggestedUsers(@Param("currentUserId") UUID currentUserId,
             org.springframework.data.domain.Pageable pageable);
@@ -68,4 +68,49 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                 )
             """)
     List<User> findMutualFollowers(@Param("userId") UUID userId);
+
+    @Query("SELECT u.followerCount FROM User u WHERE u.id = :userId")
+    long countFollowers(@Param("userId") UUID userId);
+
+    @Query(value = """
+                SELECT EXISTS (SELECT 1 FROM user_follows WHERE follower_id = :followerId AND following_id = :followingId)
+            """, nativeQuery = true)
+    boolean isFollowing(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+
+    /** Records the follow edge; returns 0 if it already existed (primary key on both ids). */
+    @Modifying
+    @Query(value = """
+                INSERT INTO user_follows (follower_id, following_id) VALUES (:followerId, :followingId)
+                ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertFollow(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_follows WHERE follower_id = :followerId AND following_id = :followingId",
+            nativeQuery = true)
+    int deleteFollow(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+
+    /** Moves both sides' counters by :delta in one statement. */
+    @Modifying
+    @Query(value = """
+                UPDATE users SET
+                    following_count = following_count + CASE WHEN id = :followerId THEN :delta ELSE 0 END,
+                    follower_count = follower_count + CASE WHEN id = :followingId THEN :delta ELSE 0 END
+                WHERE id IN (:followerId, :followingId)
+            """, nativeQuery = true)
+    int adjustFollowCounts(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId,
+            @Param("delta") long delta);
+
+    /**
+     * Accounts followed by :userId that have at least :minFollowers followers — the
+     * high-follower authors whose posts are not fanned out and are merged in at read time.
+     */
+    @Query(value = """
+                SELECT f.following_id FROM user_follows f
+                JOIN users u ON u.id = f.following_id
+                WHERE f.follower_id = :userId
+                AND u.follower_count >= :minFollowers
+            """, nativeQuery = true)
+    List<UUID> findFollowedUserIdsWithFollowersAtLeast(@Param("userId") UUID userId,
+            @Param("minFollowers") long minFollowers);
 }
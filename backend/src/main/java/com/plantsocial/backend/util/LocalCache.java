@@ -0,0 +1,163 @@
+package com.plantsocial.backend.util;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small bounded, expiring in-process cache.
+ *
+ * Entries expire {@code ttl} after they were loaded. When the cache grows past
+ * {@code maxSize}, expired entries are purged first and then the least recently read
+ * tenth is evicted, so the cost of eviction is amortized over many inserts.
+ * Loads are not deduplicated: two threads missing the same key may both run the loader.
+ *
+ * A value loaded by {@link #get} is only kept if no invalidation of its key happened
+ * while the loader ran, since the loader may have read the state from before the change
+ * that caused it. Invalidations are tracked per stripe of keys, so an unrelated key in
+ * the same stripe occasionally costs a reload too.
+ */
+public final class LocalCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Bumped before each invalidation in the stripe removes entries
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            Entry<V> entry = new Entry<>(loaded, System.nanoTime());
+            entries.put(key, entry);
+            if (generations.get(stripe) != generation) {
+                // Invalidated during the load; an invalidation after this check removes it itself
+                entries.remove(key, entry);
+            } else if (entries.size() > maxSize) {
+                evict();
+            }
+        }
+        return loaded;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.loadedAt >= ttlNanos) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        entry.lastReadAt = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        generations.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super V> condition) {
+        bumpAll();
+        entries.values().removeIf(e -> condition.test(e.value));
+    }
+
+    public void invalidateAll() {
+        bumpAll();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private int stripe(K key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private synchronized void evict() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(e -> now - e.loadedAt >= ttlNanos);
+
+        int excess = entries.size() - maxSize + maxSize / 10;
+        if (excess > 0 && entries.size() > maxSize) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastReadAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+        evictions.add(before - entries.size());
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+        volatile long lastReadAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.lastReadAt = loadedAt;
+        }
+    }
+}
@@ -19,3 +19,112 @@ ALTER TABLE plants ADD COLUMN IF NOT EXISTS is_verified BOOLEAN NOT NULL DEFAULT
 ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_type_check;
 ALTER TABLE notifications ADD CONSTRAINT notifications_type_check
     CHECK (type IN ('LIKE', 'COMMENT', 'FOLLOW', 'MESSAGE', 'REPOST'));
+
+-- Full-text search over posts: generated tsvector kept in sync by Postgres on every
+-- insert/update, plus a GIN index so PostSearchRepository never scans the table
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, '') || ' ' || coalesce(plant_tag, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_posts_search_vector ON posts USING GIN (search_vector);
+
+-- Repost roots: rendering and the per-user repost toggle look reposts up by their root
+CREATE INDEX IF NOT EXISTS idx_posts_root_post ON posts (root_post_id);
+-- (the per-user lookup is made unique by RepostRootBackfill once roots are backfilled,
+-- as uk_posts_user_root, which then replaces idx_posts_user_root)
+CREATE INDEX IF NOT EXISTS idx_posts_user_root ON posts (user_id, root_post_id);
+
+-- Keyset feed pages seek on (created_at, id) newest first, globally, per author and per tag
+CREATE INDEX IF NOT EXISTS idx_posts_created ON posts (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_user_created ON posts (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_tag_created ON posts (lower(plant_tag), created_at DESC, id DESC);
+
+-- Notification coalescing: rows created before last_activity_at existed are listed by created_at
+UPDATE notifications SET last_activity_at = created_at WHERE last_activity_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notifications_merge ON notifications (recipient_id, type, related_id, last_activity_at);
+CREATE INDEX IF NOT EXISTS idx_notifications_recipient_activity ON notifications (recipient_id, last_activity_at DESC, id DESC);
+-- One open (mergeable, unread) row per (recipient, type, related_id), so concurrent first
+-- events cannot both insert; older duplicates from before the index are closed first
+UPDATE notifications n SET merge_open = false
+WHERE n.merge_open AND NOT n.is_read AND n.related_id IS NOT NULL
+  AND EXISTS (SELECT 1 FROM notifications o
+              WHERE o.recipient_id = n.recipient_id AND o.type = n.type AND o.related_id = n.related_id
+                AND o.merge_open AND NOT o.is_read
+                AND (o.last_activity_at, o.id) > (n.last_activity_at, n.id));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_notifications_open ON notifications (recipient_id, type, related_id)
+    WHERE merge_open AND NOT is_read AND related_id IS NOT NULL;
+-- Distinct actors per coalesced notification; actor_count only grows when a row lands here.
+-- Open rows from before the table existed are seeded from their recent-actor list.
+CREATE TABLE IF NOT EXISTS notification_actors (
+    notification_id UUID NOT NULL REFERENCES notifications (id) ON DELETE CASCADE,
+    actor_id UUID NOT NULL,
+    PRIMARY KEY (notification_id, actor_id)
+);
+INSERT INTO notification_actors (notification_id, actor_id)
+SELECT n.id, a.actor_id::uuid
+FROM notifications n CROSS JOIN LATERAL unnest(string_to_array(n.recent_actor_ids, ',')) AS a(actor_id)
+WHERE n.merge_open AND NOT n.is_read AND n.recent_actor_ids IS NOT NULL AND n.recent_actor_ids <> ''
+  AND NOT EXISTS (SELECT 1 FROM notification_actors x WHERE x.notification_id = n.id)
+ON CONFLICT DO NOTHING;
+
+-- Chat read cursors replace the per-message is_read flag. Members without a cursor start
+-- at the newest message from someone else they had read, or at the time they joined.
+-- is_read is only kept for this backfill (and is created empty on fresh databases).
+ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS is_read BOOLEAN;
+UPDATE chat_room_members rm SET last_read_at = COALESCE(
+    (SELECT MAX(m.created_at) FROM chat_messages m
+     WHERE m.chat_room_id = rm.chat_room_id AND m.sender_id <> rm.user_id AND m.is_read),
+    rm.joined_at)
+WHERE rm.last_read_at IS NULL;
+
+-- Inbox summaries: backfill the last message and member preview on rooms, and the
+-- activity/unread columns on member rows, for data written before they existed
+UPDATE chat_rooms r SET last_message_id = m.id, last_message_sender_id = m.sender_id,
+    last_message_preview = left(m.content, 200), last_message_type = m.message_type,
+    last_message_at = m.created_at
+FROM (SELECT DISTINCT ON (chat_room_id) * FROM chat_messages ORDER BY chat_room_id, created_at DESC) m
+WHERE m.chat_room_id = r.id AND r.last_message_id IS NULL;
+UPDATE chat_rooms r SET
+    member_count = (SELECT COUNT(*) FROM chat_room_members WHERE chat_room_id = r.id),
+    member_preview = (SELECT string_agg(p.user_id::text || ':' || p.role, ',' ORDER BY p.joined_at, p.user_id)
+                      FROM (SELECT user_id, role, joined_at FROM chat_room_members
+                            WHERE chat_room_id = r.id ORDER BY joined_at, user_id LIMIT 5) p)
+WHERE r.member_preview IS NULL;
+UPDATE chat_room_members rm SET room_activity_at = COALESCE(r.last_message_at, r.created_at)
+FROM chat_rooms r WHERE r.id = rm.chat_room_id AND rm.room_activity_at IS NULL;
+UPDATE chat_room_members rm SET unread_count = (
+    SELECT COUNT(*) FROM chat_messages m
+    WHERE m.chat_room_id = rm.chat_room_id AND m.sender_id <> rm.user_id AND m.created_at > rm.last_read_at)
+WHERE rm.unread_count IS NULL;
+
+-- Private room pair keys for rooms created before private_key existed. Only the oldest
+-- room of a pair gets the key, so historical duplicates cannot break the unique index.
+UPDATE chat_rooms r SET private_key = p.pair_key
+FROM (
+    SELECT DISTINCT ON (pair_key) room_id, pair_key
+    FROM (
+        SELECT m.chat_room_id AS room_id, cr.created_at,
+               MIN(m.user_id::text) || ':' || MAX(m.user_id::text) AS pair_key
+        FROM chat_room_members m
+        JOIN chat_rooms cr ON cr.id = m.chat_room_id
+        WHERE cr.type = 'PRIVATE'
+        GROUP BY m.chat_room_id, cr.created_at
+        HAVING COUNT(*) = 2
+    ) pairs
+    ORDER BY pair_key, created_at
+) p
+WHERE r.id = p.room_id AND r.private_key IS NULL
+  AND NOT EXISTS (SELECT 1 FROM chat_rooms o WHERE o.private_key = p.pair_key);
+
+-- Follow counters: reverse lookups ("who follows X") use their own index. Counters for
+-- rows written before the columns existed are recounted once by FollowCountBackfill.
+CREATE INDEX IF NOT EXISTS idx_user_follows_following ON user_follows (following_id, follower_id);
+
+-- One-off data backfills run at startup record themselves here so they run once per database
+CREATE TABLE IF NOT EXISTS app_backfills (
+    name VARCHAR(100) PRIMARY KEY,
+    completed_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Comment threads: top-level comments are paged by keyset per post, replies are loaded
+-- per level for the parents on the page
+CREATE INDEX IF NOT EXISTS idx_comments_post_roots ON comments (post_id, created_at, id) WHERE parent_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_comments_parent ON comments (parent_id, created_at, id);
@@ -0,0 +1,88 @@
+package com.plantsocial.backend.chat;
+
+import com.plantsocial.backend.chat.dto.ChatRoomDTO;
+import com.plantsocial.backend.chat.model.ChatRoom;
+import com.plantsocial.backend.chat.model.ChatRoomMember;
+import com.plantsocial.backend.chat.repository.ChatMessageRepository;
+import com.plantsocial.backend.chat.repository.ChatRoomMemberRepository;
+import com.plantsocial.backend.chat.repository.ChatRoomRepository;
+import com.plantsocial.backend.exception.BusinessException;
+import com.plantsocial.backend.notification.NotificationService;
+import com.plantsocial.backend.realtime.CentrifugoPublisherService;
+import com.plantsocial.backend.security.SecurityUtils;
+import com.plantsocial.backend.user.User;
+import com.plantsocial.backend.user.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChatServiceTest {
+
+	private final ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+	private final ChatRoomMemberRepository chatRoomMemberRepository = mock(ChatRoomMemberRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final ChatService chatService = new ChatService(chatRoomRepository, chatRoomMemberRepository,
+			mock(ChatMessageRepository.class), userRepository, mock(NotificationService.class),
+			mock(SecurityUtils.class), mock(CentrifugoPublisherService.class), mock(RecentMessageBuffer.class));
+
+	private final User alice = User.builder().id(UUID.randomUUID()).username("alice").build();
+	private final User bob = User.builder().id(UUID.randomUUID()).username("bob").build();
+
+	ChatServiceTest() {
+		when(userRepository.findById(alice.getId())).thenReturn(Optional.of(alice));
+		when(userRepository.findById(bob.getId())).thenReturn(Optional.of(bob));
+		when(chatRoomRepository.findById(any())).thenAnswer(invocation -> Optional.of(room(invocation.getArgument(0))));
+	}
+
+	@Test
+	void rejectsChatWithOneself() {
+		assertThatThrownBy(() -> chatService.getOrCreatePrivateRoom(alice, alice.getId()))
+				.isInstanceOf(BusinessException.class);
+		verifyNoInteractions(chatRoomRepository, chatRoomMemberRepository);
+	}
+
+	@Test
+	void createsOneRoomPerPair() {
+		when(chatRoomRepository.insertPrivateIfAbsent(any(), anyString(), any())).thenReturn(1);
+
+		ChatRoomDTO created = chatService.getOrCreatePrivateRoom(alice, bob.getId());
+		// No transaction here, so the pair is cached right away; either side finds the same room
+		ChatRoomDTO again = chatService.getOrCreatePrivateRoom(alice, bob.getId());
+		ChatRoomDTO fromBob = chatService.getOrCreatePrivateRoom(bob, alice.getId());
+
+		assertThat(again.id()).isEqualTo(created.id());
+		assertThat(fromBob.id()).isEqualTo(created.id());
+		verify(chatRoomRepository, times(1)).insertPrivateIfAbsent(any(), anyString(), any());
+		verify(chatRoomMemberRepository, times(2)).save(any(ChatRoomMember.class));
+	}
+
+	@Test
+	void joinsTheRoomAConcurrentRequestCreated() {
+		String key = ChatService.privateKey(alice.getId(), bob.getId());
+		ChatRoom existing = room(UUID.randomUUID());
+		when(chatRoomRepository.insertPrivateIfAbsent(any(), eq(key), any())).thenReturn(0);
+		when(chatRoomRepository.findByPrivateKey(key)).thenReturn(Optional.of(existing));
+
+		ChatRoomDTO room = chatService.getOrCreatePrivateRoom(bob, alice.getId());
+
+		assertThat(room.id()).isEqualTo(existing.getId());
+		verify(chatRoomMemberRepository, never()).save(any(ChatRoomMember.class));
+	}
+
+	private static ChatRoom room(UUID id) {
+		return ChatRoom.builder().id(id).type(ChatRoom.ChatRoomType.PRIVATE).build();
+	}
+}
@@ -0,0 +1,83 @@
+package com.plantsocial.backend.chat;
+
+import com.plantsocial.backend.chat.dto.ChatMessageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentMessageBufferTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+	private final RecentMessageBuffer buffer = new RecentMessageBuffer(3, 10, Duration.ofMinutes(5));
+	private final UUID roomId = UUID.randomUUID();
+
+	@Test
+	void servesNewestFirstFromLoadedTail() {
+		ChatMessageDTO a = message(UUID.randomUUID(), 1);
+		ChatMessageDTO b = message(UUID.randomUUID(), 2);
+
+		assertThat(buffer.before(roomId, null, 10, id -> List.of(b, a))).containsExactly(b, a);
+		assertThat(buffer.before(roomId, b.id(), 10, id -> List.of())).containsExactly(a);
+	}
+
+	@Test
+	void appendsToBufferedRoom() {
+		ChatMessageDTO a = message(UUID.randomUUID(), 1);
+		buffer.before(roomId, null, 10, id -> List.of(a));
+
+		ChatMessageDTO b = message(UUID.randomUUID(), 2);
+		buffer.append(roomId, b);
+		buffer.append(roomId, b);
+
+		assertThat(buffer.before(roomId, null, 10, id -> List.of())).containsExactly(b, a);
+	}
+
+	@Test
+	void appendDuringLoadDiscardsTheLoadedTail() {
+		ChatMessageDTO a = message(UUID.randomUUID(), 1);
+		ChatMessageDTO b = message(UUID.randomUUID(), 2);
+
+		List<ChatMessageDTO> first = buffer.before(roomId, null, 10, id -> {
+			// b commits after the loader's query ran, so the loaded list misses it
+			buffer.append(roomId, b);
+			return List.of(a);
+		});
+
+		assertThat(first).containsExactly(a);
+		assertThat(buffer.before(roomId, null, 10, id -> List.of(b, a))).containsExactly(b, a);
+	}
+
+	@Test
+	void fullTailDefersOlderPagesToTheDatabase() {
+		List<ChatMessageDTO> newest = List.of(
+				message(UUID.randomUUID(), 3), message(UUID.randomUUID(), 2), message(UUID.randomUUID(), 1));
+		buffer.before(roomId, null, 1, id -> newest);
+
+		assertThat(buffer.before(roomId, newest.get(0).id(), 2, id -> List.of())).hasSize(2);
+		assertThat(buffer.before(roomId, newest.get(1).id(), 2, id -> List.of())).isNull();
+		assertThat(buffer.before(roomId, UUID.randomUUID(), 1, id -> List.of())).isNull();
+	}
+
+	@Test
+	void breaksTimestampTiesInPostgresUuidOrder() {
+		ChatMessageDTO low = message(UUID.fromString("7fffffff-0000-0000-0000-000000000000"), 1);
+		ChatMessageDTO high = message(UUID.fromString("80000000-0000-0000-0000-000000000000"), 1);
+		buffer.before(roomId, null, 10, id -> List.of());
+
+		buffer.append(roomId, low);
+		buffer.append(roomId, high);
+
+		assertThat(buffer.before(roomId, null, 10, id -> List.of())).containsExactly(high, low);
+	}
+
+	private ChatMessageDTO message(UUID id, int minute) {
+		return new ChatMessageDTO(id, roomId, UUID.randomUUID(), "user", "User", null,
+				"hi", "TEXT", null, T0.plusMinutes(minute), false);
+	}
+}
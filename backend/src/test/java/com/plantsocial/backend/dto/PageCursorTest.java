@@ -0,0 +1,43 @@
+package com.plantsocial.backend.dto;
+
+import com.plantsocial.backend.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+	@Test
+	void roundTripsThroughToken() {
+		PageCursor cursor = new PageCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000), UUID.randomUUID());
+
+		assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void missingTokenStartsAtNewest() {
+		assertThat(PageCursor.decode(null)).isSameAs(PageCursor.START);
+		assertThat(PageCursor.decode(" ")).isSameAs(PageCursor.START);
+	}
+
+	@Test
+	void rejectsGarbage() {
+		assertThatThrownBy(() -> PageCursor.decode("not a cursor!"))
+				.isInstanceOf(BusinessException.class);
+		assertThatThrownBy(() -> PageCursor.decode("bm8tc2VwYXJhdG9y"))
+				.isInstanceOf(BusinessException.class);
+	}
+
+	@Test
+	void ordersIdsUnsignedLikePostgres() {
+		UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+		UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+		assertThat(PageCursor.ID_ORDER.compare(low, high)).isNegative();
+		assertThat(PageCursor.ID_ORDER.compare(high, PageCursor.START.id())).isNegative();
+	}
+}
@@ -0,0 +1,130 @@
+package com.plantsocial.backend.notification;
+
+import com.plantsocial.backend.notification.model.Notification;
+import com.plantsocial.backend.notification.model.NotificationType;
+import com.plantsocial.backend.notification.repository.NotificationRepository;
+import com.plantsocial.backend.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final NotificationOutboxDispatcher outboxDispatcher = mock(NotificationOutboxDispatcher.class);
+	private final UnreadNotificationCounter unreadCounter = mock(UnreadNotificationCounter.class);
+	private final NotificationService notificationService =
+			new NotificationService(notificationRepository, jdbcTemplate, outboxDispatcher, unreadCounter);
+
+	private final User owner = user("Olive");
+	private final UUID postId = UUID.randomUUID();
+
+	// Stands in for the open notifications row and its notification_actors set
+	private final List<Notification> rows = new ArrayList<>();
+	private final Set<List<UUID>> actors = new HashSet<>();
+
+	NotificationServiceTest() {
+		ReflectionTestUtils.setField(notificationService, "coalesceWindow", Duration.ofHours(1));
+		ReflectionTestUtils.setField(notificationService, "pushDebounceMs", 2000L);
+
+		when(notificationRepository.findOpenForMergeIn(any(), eq(NotificationType.LIKE), eq(postId), any()))
+				.thenAnswer(invocation -> rows.stream().filter(Notification::isMergeOpen).toList());
+		when(notificationRepository.findById(any())).thenAnswer(invocation -> rows.stream()
+				.filter(n -> n.getId().equals(invocation.getArgument(0))).findFirst());
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+			String sql = invocation.getArgument(0);
+			List<Object[]> args = invocation.getArgument(1);
+			int[] counts = new int[args.size()];
+			for (int i = 0; i < args.size(); i++) {
+				Object[] a = args.get(i);
+				if (sql.contains("INSERT INTO notifications")) {
+					rows.add(Notification.builder().id((UUID) a[0]).recipient(owner).type(NotificationType.LIKE)
+							.content((String) a[4]).relatedId(postId).recentActorIds((String) a[6])
+							.lastActivityAt(LocalDateTime.now()).build());
+					counts[i] = 1;
+				} else {
+					counts[i] = actors.add(List.of((UUID) a[0], (UUID) a[1])) ? 1 : 0;
+				}
+			}
+			return counts;
+		});
+	}
+
+	@Test
+	void repeatedEventsCoalesceIntoOneOpenRow() {
+		User alice = user("Alice");
+		User bob = user("Bob");
+		User carol = user("Carol");
+
+		like(alice);
+		like(bob);
+		// Alice toggling her like off and on is not another person
+		like(alice);
+		like(carol);
+
+		assertThat(rows).singleElement().satisfies(n -> {
+			assertThat(n.getActorCount()).isEqualTo(3);
+			assertThat(n.getContent()).isEqualTo("Carol and 2 others liked your post");
+			assertThat(n.getRecentActorIds()).isEqualTo(String.join(",",
+					carol.getId().toString(), alice.getId().toString(), bob.getId().toString()));
+		});
+		verify(unreadCounter, times(1)).adjust(owner.getId(), 1);
+		verify(outboxDispatcher, times(1)).enqueue(eq(owner.getId()), anyString(), any());
+		verify(outboxDispatcher, times(3)).enqueueDebounced(eq(owner.getId()), anyString(), any(),
+				eq(rows.get(0).getId().toString()), anyLong());
+	}
+
+	@Test
+	void closedRowStartsANewOne() {
+		like(user("Alice"));
+		rows.get(0).setMergeOpen(false);
+
+		like(user("Bob"));
+
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(1).getActorCount()).isEqualTo(1);
+		verify(unreadCounter, times(2)).adjust(owner.getId(), 1);
+	}
+
+	@Test
+	void rewritesContentAroundTheLatestActor() {
+		User alice = user("Alice");
+
+		assertThat(NotificationService.coalescedContent(1, alice, "Alice liked your post"))
+				.isEqualTo("Alice liked your post");
+		assertThat(NotificationService.coalescedContent(2, alice, "Alice liked your post"))
+				.isEqualTo("Alice and 1 other liked your post");
+		assertThat(NotificationService.coalescedContent(3, alice, "New message from Alice"))
+				.isEqualTo("New message from Alice and 2 others");
+	}
+
+	private void like(User sender) {
+		notificationService.createNotification(owner, sender, NotificationType.LIKE,
+				sender.getFullName() + " liked your post", postId);
+	}
+
+	private static User user(String name) {
+		return User.builder().id(UUID.randomUUID()).username(name.toLowerCase()).fullName(name).build();
+	}
+}
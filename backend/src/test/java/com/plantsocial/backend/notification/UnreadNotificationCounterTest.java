@@ -0,0 +1,48 @@
+package com.plantsocial.backend.notification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnreadNotificationCounterTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final UnreadNotificationCounter counter = new UnreadNotificationCounter(jdbcTemplate, 100, Duration.ofMinutes(10));
+	private final UUID userId = UUID.randomUUID();
+
+	@Test
+	void adjustsACachedCount() {
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenReturn(List.of(3L));
+		assertThat(counter.get(userId)).isEqualTo(3);
+
+		// No transaction here, so the cache follows immediately
+		counter.adjust(userId, 1);
+		assertThat(counter.get(userId)).isEqualTo(4);
+		counter.adjustAll(List.of(userId), -10);
+		assertThat(counter.get(userId)).isZero();
+	}
+
+	@Test
+	void doesNotCacheACountReadBeforeAConcurrentCommit() {
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any()))
+				.thenAnswer(invocation -> {
+					// A notification commits after this read, before the load is cached
+					counter.adjust(userId, 1);
+					return List.of(3L);
+				})
+				.thenReturn(List.of(4L));
+
+		assertThat(counter.get(userId)).isEqualTo(3);
+		assertThat(counter.get(userId)).isEqualTo(4);
+	}
+}
@@ -0,0 +1,33 @@
+package com.plantsocial.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchServiceTest {
+
+	@Test
+	void buildsPrefixAndQuery() {
+		assertThat(PostSearchService.toTsQuery("Monstera  Deliciosa")).isEqualTo("monstera:* & deliciosa:*");
+	}
+
+	@Test
+	void stripsTsquerySyntax() {
+		assertThat(PostSearchService.toTsQuery("fern & !(cactus | 'aloe':*) <-> x\\"))
+				.isEqualTo("fern:* & cactus:* & aloe:* & x:*");
+		assertThat(PostSearchService.toTsQuery("Überwinterung 2024")).isEqualTo("überwinterung:* & 2024:*");
+	}
+
+	@Test
+	void dropsDuplicatesAndCapsTerms() {
+		assertThat(PostSearchService.toTsQuery("a b a c d e f g h i j"))
+				.isEqualTo("a:* & b:* & c:* & d:* & e:* & f:* & g:* & h:*");
+	}
+
+	@Test
+	void returnsNullWithoutSearchableTerms() {
+		assertThat(PostSearchService.toTsQuery(null)).isNull();
+		assertThat(PostSearchService.toTsQuery("")).isNull();
+		assertThat(PostSearchService.toTsQuery(" &|!():* ")).isNull();
+	}
+}
@@ -0,0 +1,62 @@
+package com.plantsocial.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowGraphTest {
+
+	// A slice in the middle of a larger array, as CSR rows are
+	private static final FollowGraph.Row SLICE = new FollowGraph.Row(new int[] {9, 1, 3, 5, 9}, 1, 4);
+
+	@Test
+	void insertKeepsTheSliceSorted() {
+		assertThat(FollowGraph.insert(SLICE, 0)).containsExactly(0, 1, 3, 5);
+		assertThat(FollowGraph.insert(SLICE, 4)).containsExactly(1, 3, 4, 5);
+		assertThat(FollowGraph.insert(SLICE, 7)).containsExactly(1, 3, 5, 7);
+		assertThat(FollowGraph.insert(FollowGraph.Row.EMPTY, 2)).containsExactly(2);
+	}
+
+	@Test
+	void removeDropsOnlyTheValue() {
+		assertThat(FollowGraph.remove(SLICE, 1)).containsExactly(3, 5);
+		assertThat(FollowGraph.remove(SLICE, 3)).containsExactly(1, 5);
+		assertThat(FollowGraph.remove(SLICE, 5)).containsExactly(1, 3);
+		assertThat(FollowGraph.remove(new FollowGraph.Row(new int[] {7}, 0, 1), 7)).isEmpty();
+	}
+
+	@Test
+	void offerKeepsTheTopCandidatesByMutualsThenFollowers() {
+		// Followers: node 1 has 2, node 2 has 1, node 4 has 3, nodes 0 and 3 have none
+		int[] follower = {0, 2, 0, 0, 1, 2};
+		int[] following = {1, 1, 2, 4, 4, 4};
+		FollowGraph.State state = new FollowGraph.State(
+				FollowGraph.Csr.build(5, follower, following, follower.length),
+				FollowGraph.Csr.build(5, following, follower, follower.length),
+				new int[0], new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+		int[] best = new int[2];
+		int[] bestMutual = new int[2];
+
+		int found = FollowGraph.offer(state, best, bestMutual, 0, 3, 1);
+		assertThat(found).isEqualTo(1);
+		assertThat(best[0]).isEqualTo(3);
+
+		found = FollowGraph.offer(state, best, bestMutual, found, 2, 1);
+		assertThat(found).isEqualTo(2);
+		assertThat(best).containsExactly(2, 3);
+
+		found = FollowGraph.offer(state, best, bestMutual, found, 1, 2);
+		assertThat(found).isEqualTo(2);
+		assertThat(best).containsExactly(1, 2);
+		assertThat(bestMutual).containsExactly(2, 1);
+
+		found = FollowGraph.offer(state, best, bestMutual, found, 4, 1);
+		assertThat(best).containsExactly(1, 4);
+
+		found = FollowGraph.offer(state, best, bestMutual, found, 0, 1);
+		assertThat(found).isEqualTo(2);
+		assertThat(best).containsExactly(1, 4);
+	}
+}
@@ -0,0 +1,134 @@
+package com.plantsocial.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCounterAggregatorTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final FeedPageCache feedPageCache = mock(FeedPageCache.class);
+	private final PostCounterAggregator aggregator = new PostCounterAggregator(jdbcTemplate, feedPageCache);
+	private final List<Batch> batches = new ArrayList<>();
+
+	private record Batch(String sql, List<Object[]> rows) {
+		boolean isFlush() {
+			return sql.contains("like_count + ?");
+		}
+	}
+
+	PostCounterAggregatorTest() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+			List<Object[]> rows = new ArrayList<>(invocation.getArgument(1));
+			batches.add(new Batch(invocation.getArgument(0), rows));
+			return new int[rows.size()];
+		});
+	}
+
+	@Test
+	void flushesSummedDeltasInOneBatch() {
+		UUID postId = UUID.randomUUID();
+		// No transaction here, so deltas are recorded immediately
+		aggregator.likeAdded(postId);
+		aggregator.likeAdded(postId);
+		aggregator.commentAdded(postId);
+		aggregator.repostAdded(postId);
+		aggregator.repostRemoved(postId);
+
+		aggregator.flush();
+
+		assertThat(batches).singleElement().satisfies(batch -> {
+			assertThat(batch.isFlush()).isTrue();
+			assertThat(batch.rows()).singleElement().isEqualTo(new Object[] { 2L, 1L, 0L, postId });
+		});
+		verify(feedPageCache).postsFlushed(List.of(postId));
+
+		aggregator.flush();
+		assertThat(batches).hasSize(1);
+	}
+
+	@Test
+	void requeuesDeltasWhenFlushFails() {
+		UUID postId = UUID.randomUUID();
+		aggregator.likeAdded(postId);
+		doThrow(new RuntimeException("down")).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+		aggregator.flush();
+
+		aggregator.likeAdded(postId);
+		doAnswer(invocation -> {
+			batches.add(new Batch(invocation.getArgument(0), invocation.getArgument(1)));
+			return new int[] { 1 };
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+		aggregator.flush();
+
+		assertThat(batches).singleElement()
+				.satisfies(batch -> assertThat(batch.rows()).singleElement().isEqualTo(new Object[] { 2L, 0L, 0L, postId }));
+	}
+
+	@Test
+	void reconcileSkipsPostsWithDeltasRecordedDuringTheRecount() {
+		UUID drifted = UUID.randomUUID();
+		UUID liked = UUID.randomUUID();
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(recountRow(drifted, 5, 3));
+			// This like committed before the recount read it, but its delta is still pending
+			aggregator.likeAdded(liked);
+			handler.processRow(recountRow(liked, 8, 7));
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		aggregator.reconcile();
+
+		assertThat(batches).singleElement().satisfies(batch -> {
+			assertThat(batch.isFlush()).isFalse();
+			assertThat(batch.rows()).singleElement()
+					.isEqualTo(new Object[] { 3L, 0L, 0L, drifted, 5L, 0L, 0L });
+		});
+
+		aggregator.flush();
+		assertThat(batches).last()
+				.satisfies(batch -> assertThat(batch.rows()).singleElement().isEqualTo(new Object[] { 1L, 0L, 0L, liked }));
+	}
+
+	@Test
+	void reconcileLeavesPostsWithUnflushedDeltasAlone() {
+		UUID postId = UUID.randomUUID();
+		aggregator.likeAdded(postId);
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(recountRow(postId, 5, 6));
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+		// The flush at the start of reconcile fails, so the like stays pending
+		doThrow(new RuntimeException("down")).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+		aggregator.reconcile();
+
+		verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+	}
+
+	private static ResultSet recountRow(UUID postId, long storedLikes, long actualLikes) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getObject(1, UUID.class)).thenReturn(postId);
+		when(rs.getLong(2)).thenReturn(storedLikes);
+		when(rs.getLong(5)).thenReturn(actualLikes);
+		return rs;
+	}
+}
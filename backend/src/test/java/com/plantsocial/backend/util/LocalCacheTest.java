@@ -0,0 +1,49 @@
+package com.plantsocial.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTest {
+
+	private final LocalCache<String, String> cache = new LocalCache<>(100, Duration.ofMinutes(1));
+
+	@Test
+	void keepsLoadedValue() {
+		assertThat(cache.get("a", k -> "loaded")).isEqualTo("loaded");
+		assertThat(cache.get("a", k -> "reloaded")).isEqualTo("loaded");
+	}
+
+	@Test
+	void dropsValueInvalidatedWhileLoading() {
+		String loaded = cache.get("a", k -> {
+			// The change lands (and evicts) after the loader read the old state
+			cache.invalidate("a");
+			return "stale";
+		});
+
+		assertThat(loaded).isEqualTo("stale");
+		assertThat(cache.getIfPresent("a")).isNull();
+		assertThat(cache.get("a", k -> "fresh")).isEqualTo("fresh");
+	}
+
+	@Test
+	void dropsValueWhenEverythingIsInvalidatedWhileLoading() {
+		cache.get("a", k -> {
+			cache.invalidateAll();
+			return "stale";
+		});
+
+		assertThat(cache.getIfPresent("a")).isNull();
+	}
+
+	@Test
+	void invalidationBeforeTheLoadDoesNotAffectIt() {
+		cache.invalidate("a");
+		cache.get("a", k -> "loaded");
+
+		assertThat(cache.getIfPresent("a")).isEqualTo("loaded");
+	}
+}
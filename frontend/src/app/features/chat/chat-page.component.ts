@@ -137,7 +137,7 @@ import { environment } from '../../../environments/environment';
                     <span class="typing-dots"><span>.</span><span>.</span><span>.</span></span>
                   </span>
                 } @else if (activeRoom()!.type === 'GROUP') {
-                  {{ activeRoom()!.members.length }} members
+                  {{ activeRoom()!.memberCount ?? activeRoom()!.members.length }} members
                 } @else {
                   {{ isAnyMemberOnline(activeRoom()!) ? 'Online' : 'Offline' }}
                 }
@@ -147,6 +147,12 @@ import { environment } from '../../../environments/environment';
 
           <!-- Messages -->
           <div class="messages-container" #messagesContainer>
+            @if (chatService.historyCursor()) {
+              <button class="btn-load-older" [disabled]="chatService.loadingOlder()"
+                      (click)="chatService.loadOlderMessages(activeRoom()!.id)">
+                {{ chatService.loadingOlder() ? 'Loading...' : 'Load older messages' }}
+              </button>
+            }
             @for (msg of chatService.messages(); track msg.id) {
               <div class="message" [class.own]="msg.senderId === currentUserId()">
                 @if (msg.senderId !== currentUserId()) {
@@ -521,6 +527,19 @@ import { environment } from '../../../environments/environment';
       gap: 8px;
     }
 
+    .btn-load-older {
+      align-self: center;
+      padding: 6px 14px;
+      border-radius: 16px;
+      border: 1px solid var(--surface-border);
+      background: var(--surface-card);
+      color: var(--text-color-secondary);
+      font-size: 12px;
+      cursor: pointer;
+    }
+    .btn-load-older:hover:not(:disabled) { background: var(--surface-hover); }
+    .btn-load-older:disabled { opacity: 0.6; cursor: default; }
+
     .message {
       display: flex;
       align-items: flex-end;
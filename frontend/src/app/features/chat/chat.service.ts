@@ -14,6 +14,7 @@ export interface ChatRoom {
     lastMessage: ChatMessage | null;
     createdAt: string;
     unreadCount?: number;
+    memberCount?: number;
 }
 
 export interface ChatMember {
@@ -71,6 +72,9 @@ export class ChatService {
     rooms = signal<ChatRoom[]>([]);
     activeRoom = signal<ChatRoom | null>(null);
     messages = signal<ChatMessage[]>([]);
+    /** Cursor for the next older page of the open room's history; null once it is exhausted. */
+    historyCursor = signal<string | null>(null);
+    loadingOlder = signal(false);
     onlineUsers = signal<OnlineUser[]>([]);
     typingUsers = signal<{ userId: string; username: string; fullName: string }[]>([]);
     loading = signal(false);
@@ -93,7 +97,9 @@ export class ChatService {
 
     private currentRoomSubscription: any = null;
     private currentTypingSubscription: any = null;
-    private presenceSubscription: any = null;
+    // Presence shard channel → subscription; shards are picked from the users we display
+    private presenceSubscriptions = new Map<string, Subscription>();
+    private trackedPresence = new Set<string>();
 
     // Global message stream for decoupled components
     public messageReceived$ = new Subject<ChatMessage>();
@@ -214,23 +220,61 @@ export class ChatService {
     init(): void {
         console.log('ChatService: Initializing WebSocket connection...');
         this.ws.connect();
-        this.subscribeToPresence();
     }
 
-    private subscribeToPresence(): void {
-        console.log('ChatService: Subscribing to presence...');
-        if (this.presenceSubscription) {
-            this.presenceSubscription.unsubscribe();
+    /**
+     * Follows presence for the given users only: subscribes to their presence shards
+     * (one per leading hex digit of the user id) and loads a snapshot of those users.
+     */
+    trackPresence(userIds: string[]): void {
+        const self = this.authService.currentUser()?.id;
+        const fresh = userIds.filter(id => id !== self && !this.trackedPresence.has(id));
+        if (fresh.length === 0) return;
+        fresh.forEach(id => this.trackedPresence.add(id));
+
+        for (const id of fresh) {
+            const channel = `/topic/presence/${id.charAt(0).toLowerCase()}`;
+            if (!this.presenceSubscriptions.has(channel)) {
+                this.presenceSubscriptions.set(channel, this.ws.subscribe<OnlineUser>(channel)
+                    .subscribe(delta => this.applyPresenceDelta(delta)));
+            }
         }
-        this.presenceSubscription = this.ws.subscribe<OnlineUser[]>('/topic/presence')
-            .subscribe(users => {
-                this.onlineUsers.set(users);
-            });
+
+        this.http.get<OnlineUser[]>(`${this.apiUrl}/online?userIds=${fresh.join(',')}`).subscribe(users => {
+            this.onlineUsers.update(current => [
+                ...current.filter(u => !users.some(n => n.userId === u.userId)),
+                ...users.map(u => ({ ...u, online: true }))
+            ]);
+        });
+    }
+
+    /**
+     * Rooms in the inbox only carry a preview of their members; when a larger room is
+     * opened, its full member list is loaded so every member's presence is followed.
+     */
+    private trackRoomPresence(room: ChatRoom): void {
+        if ((room.memberCount ?? 0) <= room.members.length) return;
+        this.http.get<string[]>(`${this.apiUrl}/rooms/${room.id}/member-ids`).subscribe({
+            next: ids => this.trackPresence(ids),
+            error: err => console.debug('Failed to load room members for presence', err)
+        });
+    }
+
+    private applyPresenceDelta(delta: OnlineUser): void {
+        // A shard carries every user in it; keep only the ones we display
+        if (!this.trackedPresence.has(delta.userId)) return;
+        this.onlineUsers.update(current => {
+            const others = current.filter(u => u.userId !== delta.userId);
+            return delta.online ? [...others, delta] : others;
+        });
     }
 
     destroy(): void {
         console.log('ChatService: Destroying...');
-        this.presenceSubscription?.unsubscribe();
+        this.presenceSubscriptions.forEach(sub => sub.unsubscribe());
+        this.presenceSubscriptions.clear();
+        this.trackedPresence.clear();
+        this.onlineUsers.set([]);
         this.leaveCurrentRoom();
         this.roomSubscriptions.forEach(sub => sub.unsubscribe());
         this.roomSubscriptions.clear();
@@ -270,6 +314,7 @@ export class ChatService {
 
         if (targetRoom) {
             this.activeRoom.set(targetRoom);
+            this.trackRoomPresence(targetRoom);
         } else {
             // Fallback: If we still don't have the room object, we can't fully set activeRoom.
             // This might happen on direct navigation if loadRooms() is too slow.
@@ -379,6 +424,7 @@ export class ChatService {
             next: rooms => {
                 console.log('ChatService: Rooms loaded', rooms.length);
                 this.rooms.set(rooms);
+                this.trackPresence(rooms.flatMap(r => r.members.map(m => m.userId)));
                 this.loading.set(false);
             },
             error: err => {
@@ -390,7 +436,10 @@ export class ChatService {
 
     createGroupRoom(name: string, memberIds: string[]): Observable<ChatRoom> {
         return this.http.post<ChatRoom>(`${this.apiUrl}/rooms`, { name, memberIds })
-            .pipe(tap(room => this.rooms.update(rooms => [room, ...rooms])));
+            .pipe(tap(room => {
+                this.rooms.update(rooms => [room, ...rooms]);
+                this.trackPresence(room.members.map(m => m.userId));
+            }));
     }
 
     getOrCreatePrivateRoom(userId: string): Observable<ChatRoom> {
@@ -400,6 +449,7 @@ export class ChatService {
     }
 
     private addRoomIfNotExists(room: ChatRoom) {
+        this.trackPresence(room.members.map(m => m.userId));
         this.rooms.update(rooms => {
             if (rooms.some(r => r.id === room.id)) {
                 return rooms;
@@ -408,18 +458,38 @@ export class ChatService {
         });
     }
 
-    loadMessages(roomId: string, page: number = 0): void {
-        this.http.get<any>(`${this.apiUrl}/rooms/${roomId}/messages?page=${page}&size=50`)
-            .subscribe(response => {
-                const msgs: ChatMessage[] = response.content || [];
-                if (page === 0) {
-                    this.messages.set(msgs.reverse());
-                } else {
-                    this.messages.update(existing => [...msgs.reverse(), ...existing]);
-                }
+    /** Loads the newest messages, or with `before` (a previous nextCursor) the page older than it. */
+    loadMessages(roomId: string, before?: string): void {
+        const cursor = before ? `&before=${before}` : '';
+        if (!before) {
+            this.historyCursor.set(null);
+        }
+        this.http.get<any>(`${this.apiUrl}/rooms/${roomId}/history?size=50${cursor}`)
+            .subscribe({
+                next: response => {
+                    const msgs: ChatMessage[] = response.content || [];
+                    this.historyCursor.set(response.nextCursor ?? null);
+                    if (!before) {
+                        this.messages.set(msgs.reverse());
+                    } else {
+                        this.messages.update(existing => [...msgs.reverse(), ...existing]);
+                    }
+                    this.loadingOlder.set(false);
+                },
+                error: () => this.loadingOlder.set(false)
             });
     }
 
+    /** Prepends the page before the oldest loaded message, if the history has one. */
+    loadOlderMessages(roomId: string): void {
+        const cursor = this.historyCursor();
+        if (!cursor || this.loadingOlder()) {
+            return;
+        }
+        this.loadingOlder.set(true);
+        this.loadMessages(roomId, cursor);
+    }
+
     uploadMedia(roomId: string, file: File): Observable<ChatMessage> {
         const formData = new FormData();
         formData.append('file', file);
@@ -311,7 +311,7 @@ export class FloatingChatWindowComponent implements OnInit, AfterViewChecked {
     const options: any = token ? { headers: { Authorization: `Bearer ${token}` } } : {};
 
     // Fetch messages independently
-    this.http.get<any>(`${environment.apiUrl}/chat/rooms/${this.chatState.roomId}/messages?page=0&size=50`, options)
+    this.http.get<any>(`${environment.apiUrl}/chat/rooms/${this.chatState.roomId}/history?size=50`, options)
       .subscribe({
         next: (response: any) => {
           const msgs: ChatMessage[] = response.content || [];
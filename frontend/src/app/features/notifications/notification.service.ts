@@ -15,6 +15,8 @@ export interface Notification {
     relatedId: string;
     isRead: boolean;
     createdAt: string;
+    actorCount: number;
+    lastActivityAt: string;
 }
 
 @Injectable({
@@ -106,7 +108,8 @@ export class NotificationService {
     }
 
     private addRealTimeNotification(n: Notification) {
-        this.notifications.update(list => [n, ...list.slice(0, 19)]);
+        // Coalesced notifications are pushed again under the same id; move them to the top
+        this.notifications.update(list => [n, ...list.filter(x => x.id !== n.id).slice(0, 19)]);
         // unreadCount is computed from the array — no separate signal to update
         this.toast.showInfo(n.content);
     }